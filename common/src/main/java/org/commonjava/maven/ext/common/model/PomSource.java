@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.model;
+
+import org.codehaus.plexus.util.xml.XmlStreamReader;
+import org.commonjava.maven.ext.common.ManipulationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Holds the raw bytes of a POM file as they were read from disk, together with the details (character encoding and
+ * end-of-line style) required to write it back out. A POM is read once into this record and every later consumer
+ * (peeking, model parsing and rewriting) works from the same buffer.
+ */
+public class PomSource
+{
+    /**
+     * File that the content was read from.
+     */
+    private final File pom;
+
+    private final byte[] content;
+
+    private final String encoding;
+
+    /**
+     * The first end-of-line marker found in the content; null if the content does not contain one.
+     */
+    private final String lineSeparator;
+
+    public PomSource( final File pom, final byte[] content )
+                    throws ManipulationException
+    {
+        this.pom = pom;
+        this.content = content;
+        this.encoding = determineEncoding( pom, content );
+        this.lineSeparator = determineEOL( content );
+    }
+
+    /**
+     * Read the given POM file into memory.
+     *
+     * @param pom the file to read.
+     * @return a new PomSource.
+     * @throws ManipulationException if an error occurs.
+     */
+    public static PomSource read( final File pom )
+                    throws ManipulationException
+    {
+        try
+        {
+            return new PomSource( pom, Files.readAllBytes( pom.toPath() ) );
+        }
+        catch ( IOException e )
+        {
+            throw new ManipulationException( "Failed to read POM: %s", e, pom );
+        }
+    }
+
+    public File getPom()
+    {
+        return pom;
+    }
+
+    /**
+     * Returns the underlying buffer. This is shared and must not be modified.
+     * @return the raw bytes of the POM.
+     */
+    public byte[] getContent()
+    {
+        return content;
+    }
+
+    /**
+     * @return a new stream over the raw bytes of the POM.
+     */
+    public InputStream openStream()
+    {
+        return new ByteArrayInputStream( content );
+    }
+
+    public String getEncoding()
+    {
+        return encoding;
+    }
+
+    public String getLineSeparator()
+    {
+        return lineSeparator;
+    }
+
+    /**
+     * Decodes the content using the detected encoding and checks whether it contains the supplied text.
+     *
+     * @param text the text to search for.
+     * @return true if the text was found.
+     * @throws ManipulationException if an error occurs.
+     */
+    public boolean contains( final String text )
+                    throws ManipulationException
+    {
+        try
+        {
+            return new String( content, encoding ).contains( text );
+        }
+        catch ( IOException e )
+        {
+            throw new ManipulationException( "Failed to decode POM: %s", e, pom );
+        }
+    }
+
+    /**
+     * Compares the content of this source with another.
+     *
+     * @param other the PomSource to compare with.
+     * @return true if both hold the same bytes.
+     */
+    public boolean hasSameContent( final PomSource other )
+    {
+        return other != null && Arrays.equals( content, other.content );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PomSource [pom=" + pom + ", encoding=" + encoding + ", length=" + content.length + "]";
+    }
+
+    private static String determineEncoding( final File pom, final byte[] content )
+                    throws ManipulationException
+    {
+        try ( XmlStreamReader reader = new XmlStreamReader( new ByteArrayInputStream( content ) ) )
+        {
+            return reader.getEncoding();
+        }
+        catch ( IOException e )
+        {
+            throw new ManipulationException( "Failed to determine encoding of POM: %s", e, pom );
+        }
+    }
+
+    private static String determineEOL( final byte[] content )
+    {
+        int prev = -1;
+        for ( final byte ch : content )
+        {
+            if ( ch == '\n' )
+            {
+                return prev == '\r' ? "\r\n" : "\n";
+            }
+            else if ( prev == '\r' )
+            {
+                return "\r";
+            }
+            prev = ch;
+        }
+        return null;
+    }
+}
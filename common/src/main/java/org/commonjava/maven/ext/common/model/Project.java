@@ -33,6 +33,7 @@ import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
 import org.commonjava.maven.ext.common.util.ProfileUtils;
 import org.commonjava.maven.ext.common.util.PropertyResolver;
+import org.commonjava.maven.ext.common.util.PropertyScope;
 import org.commonjava.maven.galley.maven.internal.defaults.StandardMaven304PluginDefaults;
 import org.commonjava.maven.galley.maven.spi.defaults.MavenPluginDefaults;
 import org.slf4j.Logger;
@@ -75,6 +76,11 @@ public class Project
 
     private ProjectVersionRef key;
 
+    /**
+     * Raw content of the POM file as read from disk ; used when rewriting the POM.
+     */
+    private PomSource pomSource;
+
     /**
      * Denotes if this Project represents the top level POM of a build.
      */
@@ -92,6 +98,16 @@ public class Project
      */
     private Project projectParent;
 
+    /**
+     * The reverse and forward inheritance lists ; see {@link #getInheritance()}.
+     */
+    private volatile Inheritance inheritance;
+
+    /**
+     * Memoized by {@link PropertyResolver}.
+     */
+    private volatile PropertyScope propertyScope;
+
     private HashMap<ArtifactRef, Dependency> resolvedDependencies;
 
     private HashMap<ArtifactRef, Dependency> allResolvedDependencies;
@@ -125,6 +141,13 @@ public class Project
         this( modelKey( model ), pom, model );
     }
 
+    public Project( final PomSource pomSource, final Model model )
+        throws ManipulationException
+    {
+        this( modelKey( model ), pomSource.getPom(), model );
+        this.pomSource = pomSource;
+    }
+
     public Project( final Model model )
         throws ManipulationException
     {
@@ -181,6 +204,38 @@ public class Project
         return pom;
     }
 
+    /**
+     * Retrieve the raw content of the POM file. This may be null if the Project was not created from a file.
+     * @return the PomSource for this Project.
+     */
+    public PomSource getPomSource()
+    {
+        return pomSource;
+    }
+
+    public void setPomSource( final PomSource pomSource )
+    {
+        this.pomSource = pomSource;
+    }
+
+    /**
+     * Retrieve the properties visible to this project as last memoized by {@link PropertyResolver}.
+     * @return the PropertyScope or null if none has been created.
+     */
+    public PropertyScope getPropertyScope()
+    {
+        return propertyScope;
+    }
+
+    /**
+     * Memoize the properties visible to this project ; only to be used by {@link PropertyResolver}.
+     * @param propertyScope the PropertyScope to retain.
+     */
+    public void setPropertyScope( final PropertyScope propertyScope )
+    {
+        this.propertyScope = propertyScope;
+    }
+
     /**
      * Retrieve the model undergoing modification.
      * @return the Model being modified.
@@ -705,38 +760,74 @@ public class Project
     }
 
     /**
-     * @return inherited projects. Returned with order of root project first, down to this project.
+     * @return inherited projects. Returned with order of root project first, down to this project. The list is
+     * unmodifiable.
      */
     public List<Project> getInheritedList()
     {
-        final List<Project> found = new ArrayList<>(  );
-        found.add( this );
-
-        Project loop = this;
-        while ( loop.getProjectParent() != null)
-        {
-            // Place inherited first so latter down tree take precedence.
-            found.add( 0, loop.getProjectParent() );
-            loop = loop.getProjectParent();
-        }
-        return found;
+        return getInheritance().forward;
     }
 
     /**
-     * @return inherited projects. Returned with order of this project first, up to root project.
+     * @return inherited projects. Returned with order of this project first, up to root project. The list is
+     * unmodifiable.
      */
     public List<Project> getReverseInheritedList()
     {
-        final List<Project> found = new ArrayList<>(  );
-        found.add( this );
+        return getInheritance().reverse;
+    }
 
+    /**
+     * Returns the cached reverse and forward inheritance lists, rebuilding them if the chain of parents no longer
+     * matches (i.e. the parent of this or any ancestor has been changed since they were built).
+     */
+    private Inheritance getInheritance()
+    {
+        Inheritance result = inheritance;
+
+        if ( result != null )
+        {
+            final List<Project> reverse = result.reverse;
+            Project loop = this;
+            int i = 0;
+            while ( loop != null && i < reverse.size() && reverse.get( i ) == loop )
+            {
+                loop = loop.getProjectParent();
+                i++;
+            }
+            if ( loop == null && i == reverse.size() )
+            {
+                return result;
+            }
+        }
+
+        final List<Project> found = new ArrayList<>();
         Project loop = this;
-        while ( loop.getProjectParent() != null)
+        while ( loop != null )
         {
             // Place inherited last for iteration purposes
-            found.add( loop.getProjectParent() );
+            found.add( loop );
             loop = loop.getProjectParent();
         }
-        return found;
+        result = new Inheritance( found );
+        inheritance = result;
+        return result;
+    }
+
+    private static final class Inheritance
+    {
+        private final List<Project> forward;
+
+        private final List<Project> reverse;
+
+        private Inheritance( final List<Project> reverse )
+        {
+            final List<Project> forward = new ArrayList<>( reverse );
+            // Place inherited first so latter down tree take precedence.
+            Collections.reverse( forward );
+
+            this.forward = Collections.unmodifiableList( forward );
+            this.reverse = Collections.unmodifiableList( reverse );
+        }
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.model;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lookup tables over the projects of the reactor, built once after parsing. Projects are indexed by their GA and
+ * GAV (as read from the POM, see {@link Project#getKey()}). Lists retain the order of the projects supplied ; where
+ * several projects share a GAV the first one is returned.
+ * <p>
+ * The index does not track later changes to the models, so callers needing the current version of a project
+ * should look it up by GA and then consult the model.
+ */
+public class ReactorIndex
+{
+    private final Map<ProjectRef, List<Project>> byGA = new HashMap<>();
+
+    private final Map<ProjectVersionRef, Project> byGAV = new HashMap<>();
+
+    public ReactorIndex( final List<Project> projects )
+    {
+        for ( final Project project : projects )
+        {
+            final ProjectVersionRef key = project.getKey();
+
+            final ProjectRef ga = ga( key );
+            List<Project> list = byGA.get( ga );
+            if ( list == null )
+            {
+                list = new ArrayList<>( 1 );
+                byGA.put( ga, list );
+            }
+            list.add( project );
+
+            final ProjectVersionRef gav = gav( key );
+            if ( !byGAV.containsKey( gav ) )
+            {
+                byGAV.put( gav, project );
+            }
+        }
+    }
+
+    /**
+     * @param groupId the groupId to search for.
+     * @param artifactId the artifactId to search for.
+     * @return whether any project in the reactor has this groupId and artifactId.
+     */
+    public boolean contains( final String groupId, final String artifactId )
+    {
+        return groupId != null && artifactId != null && byGA.containsKey( new SimpleProjectRef( groupId,
+                                                                                               artifactId ) );
+    }
+
+    /**
+     * @param ref the reference to search for ; any version information is ignored.
+     * @return whether any project in the reactor has this groupId and artifactId.
+     */
+    public boolean contains( final ProjectRef ref )
+    {
+        return byGA.containsKey( ga( ref ) );
+    }
+
+    /**
+     * @param ref the reference to search for ; any version information is ignored.
+     * @return the projects with this groupId and artifactId ; never null.
+     */
+    public List<Project> getProjects( final ProjectRef ref )
+    {
+        final List<Project> result = byGA.get( ga( ref ) );
+        return result == null ? Collections.<Project>emptyList() : Collections.unmodifiableList( result );
+    }
+
+    /**
+     * @param ref the groupId, artifactId and version to search for.
+     * @return the project or null if there is no such project.
+     */
+    public Project getProject( final ProjectVersionRef ref )
+    {
+        return ref == null ? null : byGAV.get( gav( ref ) );
+    }
+
+    // Normalise the keys as ProjectRef implementations differ in their notion of equality.
+    private static ProjectRef ga( final ProjectRef ref )
+    {
+        return new SimpleProjectRef( ref.getGroupId(), ref.getArtifactId() );
+    }
+
+    private static ProjectVersionRef gav( final ProjectVersionRef ref )
+    {
+        return new SimpleProjectVersionRef( ref.getGroupId(), ref.getArtifactId(), ref.getVersionString() );
+    }
+}
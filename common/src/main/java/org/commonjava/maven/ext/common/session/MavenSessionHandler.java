@@ -18,6 +18,7 @@ package org.commonjava.maven.ext.common.session;
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.settings.Settings;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.util.PropertyGenerations;
 
 import java.io.File;
 import java.util.List;
@@ -38,4 +39,9 @@ public interface MavenSessionHandler
     List<String> getActiveProfiles();
 
     Settings getSettings();
+
+    /**
+     * @return the count of modifications to project properties made during this session.
+     */
+    PropertyGenerations getPropertyGenerations();
 }
@@ -20,6 +20,7 @@ import org.apache.maven.model.Profile;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -37,29 +38,34 @@ public final class ProfileUtils
     }
 
 
+    /**
+     * @param session the current session.
+     * @param model the model to return the profiles of.
+     * @return an unmodifiable list of the profiles to scan ; when scanning all profiles this is a view of the profiles
+     * of the model rather than a copy.
+     */
     public static List<Profile> getProfiles ( MavenSessionHandler session, Model model)
     {
-        final List<Profile> result = new ArrayList<>( );
         final List<Profile> profiles = model.getProfiles();
-        final boolean scanActiveProfiles = Boolean.parseBoolean( session.getUserProperties().getProperty( PROFILE_SCANNING , "false" ) );
 
-        if ( profiles != null )
+        if ( profiles == null || profiles.isEmpty() )
         {
-            if ( scanActiveProfiles )
-            {
-                for ( Profile p : profiles )
-                {
-                    if ( session.getActiveProfiles().contains( p.getId() ) )
-                    {
-                        result.add( p );
-                    }
-                }
-            }
-            else
+            return Collections.emptyList();
+        }
+        if ( !Boolean.parseBoolean( session.getUserProperties().getProperty( PROFILE_SCANNING , "false" ) ) )
+        {
+            return Collections.unmodifiableList( profiles );
+        }
+
+        final List<Profile> result = new ArrayList<>( );
+        final List<String> active = session.getActiveProfiles();
+        for ( Profile p : profiles )
+        {
+            if ( active.contains( p.getId() ) )
             {
-                result.addAll( profiles );
+                result.add( p );
             }
         }
-        return result;
+        return Collections.unmodifiableList( result );
     }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.commonjava.maven.ext.common.model.Project;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the modifications made to the properties of the projects of a session, so that the {@link PropertyScope}s
+ * and {@link PropertyIndex} built from them are only rebuilt once the properties they were built from may have
+ * changed. Modifications are counted per project ; those that may have affected any project (e.g. changes made by a
+ * script) are counted once for the whole session. Held by the session, see {@link
+ * org.commonjava.maven.ext.common.session.MavenSessionHandler#getPropertyGenerations()}.
+ */
+public final class PropertyGenerations
+{
+    private final AtomicLong all = new AtomicLong();
+
+    private final AtomicLong definitions = new AtomicLong();
+
+    private final ConcurrentMap<Project, AtomicLong> projects = new ConcurrentHashMap<>();
+
+    /**
+     * Records that the properties (or profiles) of any project may have been modified.
+     */
+    void invalidate()
+    {
+        definitions.incrementAndGet();
+        all.incrementAndGet();
+    }
+
+    /**
+     * Records that properties may have been added to or removed from the project.
+     */
+    void invalidate( final Project project )
+    {
+        definitions.incrementAndGet();
+        increment( project );
+    }
+
+    /**
+     * Records that the values of existing properties of the project may have been modified.
+     */
+    void invalidateValues( final Project project )
+    {
+        increment( project );
+    }
+
+    long getAll()
+    {
+        return all.get();
+    }
+
+    long getDefinitions()
+    {
+        return definitions.get();
+    }
+
+    /**
+     * @return the number of modifications of each of the projects, in the same order.
+     */
+    long[] get( final List<Project> projects )
+    {
+        final long[] result = new long[projects.size()];
+        for ( int i = 0; i < result.length; i++ )
+        {
+            result[i] = get( projects.get( i ) );
+        }
+        return result;
+    }
+
+    long get( final Project project )
+    {
+        final AtomicLong count = projects.get( project );
+        return count == null ? 0 : count.get();
+    }
+
+    private void increment( final Project project )
+    {
+        AtomicLong count = projects.get( project );
+        if ( count == null )
+        {
+            final AtomicLong created = new AtomicLong();
+            count = projects.putIfAbsent( project, created );
+            if ( count == null )
+            {
+                count = created;
+            }
+        }
+        count.incrementAndGet();
+    }
+}
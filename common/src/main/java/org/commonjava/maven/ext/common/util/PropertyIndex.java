@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.apache.maven.model.Profile;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.session.MavenSessionHandler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of where each property of a project is defined. A property defined within the model properties is attributed
+ * to those ; otherwise it is attributed to the first profile (as returned by {@link ProfileUtils#getProfiles}) that
+ * defines it. Projects are indexed on first use.
+ * <p>
+ * The index refers to the live {@link Properties} instances so it remains valid while the values of properties are
+ * changed. It must be discarded (see {@link #isCurrent()}) once properties have been added or removed, which is
+ * signalled by {@link PropertyResolver#invalidate(MavenSessionHandler)}.
+ */
+public final class PropertyIndex
+{
+    private final MavenSessionHandler session;
+
+    private final long generation;
+
+    private final Map<Project, Map<String, Properties>> definitions = new ConcurrentHashMap<>();
+
+    public PropertyIndex( final MavenSessionHandler session )
+    {
+        this.session = session;
+        this.generation = session.getPropertyGenerations().getDefinitions();
+    }
+
+    /**
+     * @return false if properties may have been added or removed since this index was created.
+     */
+    public boolean isCurrent()
+    {
+        return generation == session.getPropertyGenerations().getDefinitions();
+    }
+
+    /**
+     * @param project the project to search ; its parents are not searched.
+     * @param key the property to search for.
+     * @return the properties of the model or profile that define the key, or null if the project does not define it.
+     */
+    public Properties getDefinition( final Project project, final String key )
+    {
+        Map<String, Properties> projectDefinitions = definitions.get( project );
+        if ( projectDefinitions == null )
+        {
+            projectDefinitions = index( project );
+            definitions.put( project, projectDefinitions );
+        }
+        return projectDefinitions.get( key );
+    }
+
+    private Map<String, Properties> index( final Project project )
+    {
+        final Map<String, Properties> result = new HashMap<>();
+
+        // Add in reverse order of precedence so the model and then the earliest profile wins.
+        final List<Profile> profiles = ProfileUtils.getProfiles( session, project.getModel() );
+        for ( int i = profiles.size() - 1; i >= 0; i-- )
+        {
+            add( result, profiles.get( i ).getProperties() );
+        }
+        add( result, project.getModel().getProperties() );
+
+        return result;
+    }
+
+    private static void add( final Map<String, Properties> result, final Properties properties )
+    {
+        for ( final Object key : properties.keySet() )
+        {
+            if ( key instanceof String )
+            {
+                result.put( (String) key, properties );
+            }
+        }
+    }
+}
@@ -22,34 +22,56 @@ import org.codehaus.plexus.interpolation.PropertiesBasedValueSource;
 import org.codehaus.plexus.interpolation.StringSearchInterpolator;
 import org.commonjava.maven.ext.common.ManipulationException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 
 public class PropertyInterpolator
 {
+    private static final String START_EXPR = "${";
+
+    private static final String END_EXPR = "}";
+
+    // According to https://maven.apache.org/guides/introduction/introduction-to-the-pom.html
+    // the prefix project and the deprecated prefix pom are possible.
+    private static final List<String> PREFIXES = Arrays.asList( "pom", "project" );
+
     private final StringSearchInterpolator interp = new StringSearchInterpolator();
     private final PrefixAwareRecursionInterceptor ri;
+    private final Properties props;
 
     public PropertyInterpolator( Properties props, Object objectValueSource )
     {
+        this.props = props;
         if ( props != null )
         {
             interp.addValueSource( new PropertiesBasedValueSource( props ) );
         }
 
-        // According to https://maven.apache.org/guides/introduction/introduction-to-the-pom.html
-        // the prefix project and the deprecated prefix pom are possible.
-        final List<String> prefixes = Arrays.asList( "pom", "project" );
-
-        ri = new PrefixAwareRecursionInterceptor( prefixes, true );
-        interp.addValueSource( new PrefixedObjectValueSource( prefixes, objectValueSource, true ) );
+        ri = new PrefixAwareRecursionInterceptor( PREFIXES, true );
+        interp.addValueSource( new PrefixedObjectValueSource( PREFIXES, objectValueSource, true ) );
     }
 
-    public String interp( String value ) throws ManipulationException
+    // The interpolator and recursion interceptor are stateful while interpolating, and instances may be shared
+    // through PropertyResolver.
+    public synchronized String interp( String value ) throws ManipulationException
     {
+        if ( value != null && !value.contains( START_EXPR ) )
+        {
+            return value;
+        }
+
         try
         {
+            if ( value != null )
+            {
+                final String result = resolve( value, new ArrayList<String>() );
+                if ( result != null )
+                {
+                    return result;
+                }
+            }
             return interp.interpolate( value, ri );
         }
         catch ( final InterpolationException e )
@@ -57,4 +79,85 @@ public class PropertyInterpolator
             throw new ManipulationException( "Failed to interpolate: %s. Reason: %s", e, value, e.getMessage() );
         }
     }
+
+    /**
+     * Interpolates the value using the properties only, delimiting and recursively resolving expressions the same way
+     * as {@link StringSearchInterpolator} does. This avoids the overhead of the plexus interpolator for the common case
+     * of values that only reference properties. Returns null whenever the result could differ from that of the plexus
+     * interpolator, i.e. if an expression is not a property (it may be resolved by the object value source or left as
+     * is) or is recursive (reported as an error), in which case the plexus interpolator must be used instead.
+     *
+     * @param value the value to interpolate.
+     * @param resolving the expressions, without prefix, currently being resolved.
+     * @return the interpolated value or null.
+     */
+    private String resolve( final String value, final List<String> resolving )
+    {
+        StringBuilder result = null;
+        int start;
+        int end = -1;
+        while ( ( start = value.indexOf( START_EXPR, end + 1 ) ) > -1 )
+        {
+            final int close = value.indexOf( END_EXPR, start + 1 );
+            if ( close < 0 )
+            {
+                // An unterminated expression is retained as is.
+                break;
+            }
+            final String whole = value.substring( start, close + END_EXPR.length() );
+            String expression = whole.substring( START_EXPR.length(), whole.length() - END_EXPR.length() );
+            if ( expression.startsWith( "." ) )
+            {
+                expression = expression.substring( 1 );
+            }
+
+            final String property = props == null ? null : props.getProperty( expression );
+            final String name = trimPrefix( expression );
+            if ( property == null || property.contains( whole ) || resolving.contains( name ) )
+            {
+                return null;
+            }
+
+            resolving.add( name );
+            final String resolved = resolve( property, resolving );
+            resolving.remove( resolving.size() - 1 );
+            if ( resolved == null )
+            {
+                return null;
+            }
+
+            if ( result == null )
+            {
+                result = new StringBuilder( value.length() * 2 );
+            }
+            result.append( value, end + 1, start ).append( resolved );
+            end = close + END_EXPR.length() - 1;
+        }
+
+        if ( result == null )
+        {
+            return value;
+        }
+        return result.append( value, end + 1, value.length() ).toString();
+    }
+
+    /**
+     * Strips any prefix the same way as {@link PrefixAwareRecursionInterceptor} does before checking for cycles.
+     */
+    private static String trimPrefix( final String expression )
+    {
+        for ( final String prefix : PREFIXES )
+        {
+            if ( expression.startsWith( prefix ) )
+            {
+                final String trimmed = expression.substring( prefix.length() );
+                if ( trimmed.startsWith( "." ) )
+                {
+                    return trimmed.substring( 1 );
+                }
+                break;
+            }
+        }
+        return expression;
+    }
 }
@@ -32,6 +32,42 @@ public final class PropertyResolver
     {
     }
 
+    /**
+     * Discards the memoized property scopes and definitions of all projects of the session. This must be called after
+     * modifying the properties (or profiles) of projects without recording which.
+     *
+     * @param session the current session.
+     */
+    public static void invalidate( MavenSessionHandler session )
+    {
+        session.getPropertyGenerations().invalidate();
+    }
+
+    /**
+     * Discards the memoized property scopes of the project and of those inheriting from it, and the memoized property
+     * definitions. This must be called after adding or removing properties (or profiles) of the project.
+     *
+     * @param session the current session.
+     * @param project the modified project.
+     */
+    public static void invalidate( MavenSessionHandler session, Project project )
+    {
+        session.getPropertyGenerations().invalidate( project );
+    }
+
+    /**
+     * Discards the memoized property scopes of the project and of those inheriting from it. This may be called
+     * instead of {@link #invalidate(MavenSessionHandler, Project)} when only the values of existing properties have
+     * been modified.
+     *
+     * @param session the current session.
+     * @param project the modified project.
+     */
+    public static void invalidateValues( MavenSessionHandler session, Project project )
+    {
+        session.getPropertyGenerations().invalidateValues( project );
+    }
+
     /**
      * This recursively checks the supplied value and recursively resolves it if its a property.
      *
@@ -43,7 +79,30 @@ public final class PropertyResolver
      */
     public static String resolveInheritedProperties( MavenSessionHandler session, Project start, String value ) throws ManipulationException
     {
-        return resolveProperties( session, start.getInheritedList(), value );
+        return getInheritedScope( session, start ).getInterpolator().interp( value );
+    }
+
+    /**
+     * Returns the scope of the properties inherited by the project, creating it if the properties of the project or
+     * of any of its parents may have been modified since it was last created.
+     */
+    private static PropertyScope getInheritedScope( MavenSessionHandler session, Project project )
+    {
+        PropertyScope scope = project.getPropertyScope();
+        if ( scope == null || !scope.isValid( session ) )
+        {
+            final List<Project> projects = project.getInheritedList();
+            final PropertyGenerations generations = session.getPropertyGenerations();
+
+            // Taken before reading the properties so that a concurrent modification leaves the scope stale.
+            final long generation = generations.getAll();
+            final long[] projectGenerations = generations.get( projects );
+
+            scope = new PropertyScope( session, generation, projects, projectGenerations,
+                                       new PropertyInterpolator( amalgamate( session, projects ), projects.get( 0 ) ) );
+            project.setPropertyScope( scope );
+        }
+        return scope;
     }
 
     private static Properties searchProfiles( MavenSessionHandler session, Project p )
@@ -67,6 +126,12 @@ public final class PropertyResolver
      * @throws ManipulationException if an error occurs
      */
     public static String resolveProperties( MavenSessionHandler session, List<Project> projects, String value ) throws ManipulationException
+    {
+        PropertyInterpolator pi = new PropertyInterpolator( amalgamate( session, projects ), projects.get( 0 ) );
+        return pi.interp( value );
+    }
+
+    private static Properties amalgamate( MavenSessionHandler session, List<Project> projects )
     {
         final Properties amalgamated = new Properties();
 
@@ -77,7 +142,6 @@ public final class PropertyResolver
             amalgamated.putAll( p.getModel().getProperties() );
             amalgamated.putAll( searchProfiles( session, p ) );
         }
-        PropertyInterpolator pi = new PropertyInterpolator( amalgamated, projects.get( 0 ) );
-        return pi.interp( value );
+        return amalgamated;
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.session.MavenSessionHandler;
+
+import java.util.List;
+
+/**
+ * The properties visible to a project (its own, those of its parents and those of their active profiles) together
+ * with the interpolator over them. Instances are created and memoized by {@link PropertyResolver} ; they are
+ * immutable and only valid for the session they were created in, until the properties of one of the projects they
+ * were built from are modified (see {@link PropertyGenerations}).
+ */
+public final class PropertyScope
+{
+    private final MavenSessionHandler session;
+
+    private final long generation;
+
+    private final List<Project> projects;
+
+    private final long[] projectGenerations;
+
+    private final PropertyInterpolator interpolator;
+
+    PropertyScope( final MavenSessionHandler session, final long generation, final List<Project> projects,
+                   final long[] projectGenerations, final PropertyInterpolator interpolator )
+    {
+        this.session = session;
+        this.generation = generation;
+        this.projects = projects;
+        this.projectGenerations = projectGenerations;
+        this.interpolator = interpolator;
+    }
+
+    boolean isValid( final MavenSessionHandler session )
+    {
+        if ( this.session != session )
+        {
+            return false;
+        }
+
+        final PropertyGenerations generations = session.getPropertyGenerations();
+        if ( generations.getAll() != generation )
+        {
+            return false;
+        }
+        for ( int i = 0; i < projectGenerations.length; i++ )
+        {
+            if ( generations.get( projects.get( i ) ) != projectGenerations[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    PropertyInterpolator getInterpolator()
+    {
+        return interpolator;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.commonjava.maven.ext.common.ManipulationException;
+
+import java.util.Properties;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+
+/**
+ * Reads numeric user properties, reporting a value which is not a number as a {@link ManipulationException} that names
+ * the property rather than a raw {@link NumberFormatException}.
+ */
+public final class UserProperties
+{
+    private UserProperties()
+    {
+    }
+
+    /**
+     * @param userProperties the user properties of the build.
+     * @param property the name of the property.
+     * @param defaultValue the value to use if the property is not set.
+     * @return the value of the property.
+     * @throws ManipulationException if the value is not an integer.
+     */
+    public static int getInt( final Properties userProperties, final String property, final int defaultValue )
+                    throws ManipulationException
+    {
+        final String value = userProperties.getProperty( property );
+        if ( isEmpty( value ) )
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Integer.parseInt( value.trim() );
+        }
+        catch ( final NumberFormatException e )
+        {
+            throw new ManipulationException( "Invalid value for {}: {}", e, property, value );
+        }
+    }
+
+    /**
+     * @param userProperties the user properties of the build.
+     * @param property the name of the property.
+     * @param defaultValue the value to use if the property is not set.
+     * @return the value of the property.
+     * @throws ManipulationException if the value is not an integer.
+     */
+    public static long getLong( final Properties userProperties, final String property, final long defaultValue )
+                    throws ManipulationException
+    {
+        final String value = userProperties.getProperty( property );
+        if ( isEmpty( value ) )
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Long.parseLong( value.trim() );
+        }
+        catch ( final NumberFormatException e )
+        {
+            throw new ManipulationException( "Invalid value for {}: {}", e, property, value );
+        }
+    }
+}
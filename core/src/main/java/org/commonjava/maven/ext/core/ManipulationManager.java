@@ -27,16 +27,24 @@ import org.apache.maven.execution.MavenSession;
 import org.apache.maven.project.ProjectBuilder;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.GAV;
 import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.PropertyResolver;
+import org.commonjava.maven.ext.common.util.UserProperties;
 import org.commonjava.maven.ext.core.impl.Manipulator;
 import org.commonjava.maven.ext.core.state.CommonState;
+import org.commonjava.maven.ext.core.state.DependencyState;
+import org.commonjava.maven.ext.core.state.PluginState;
+import org.commonjava.maven.ext.core.state.PropertyState;
 import org.commonjava.maven.ext.core.state.State;
 import org.commonjava.maven.ext.core.state.VersioningState;
 import org.commonjava.maven.ext.core.util.ManipulatorPriorityComparator;
+import org.commonjava.maven.ext.io.ModelIO;
 import org.commonjava.maven.ext.io.PomIO;
 import org.commonjava.maven.ext.io.resolver.ExtensionInfrastructure;
+import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +54,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -59,7 +68,7 @@ import java.util.Set;
  * <ol>
  *   <li>{@link #init(ManipulationSession)}</li>
  *   <li>{@link #scan(List, ManipulationSession)}</li>
- *   <li>{@link #applyManipulations(List)}</li>
+ *   <li>{@link #applyManipulations(List, ManipulationSession)}</li>
  * </ol>
  * 
  * @author jdcasey
@@ -84,9 +93,15 @@ public class ManipulationManager
     @Requirement( role = ExtensionInfrastructure.class )
     private Map<String, ExtensionInfrastructure> infrastructure;
 
+    @Requirement( role = ExtensionInfrastructure.class, hint = "galley" )
+    private GalleyInfrastructure galleyInfra;
+
     @Requirement
     private PomIO pomIO;
 
+    @Requirement
+    private ModelIO modelIO;
+
     /**
      * Determined from {@link Manipulator#getExecutionIndex()} comparisons during {@link #init(ManipulationSession)}.
      */
@@ -104,12 +119,20 @@ public class ManipulationManager
     {
         logger.debug( "Initialising ManipulationManager with user properties {}", session.getUserProperties() );
 
+        galleyInfra.setSharedCache( GalleyInfrastructure.createSharedCache( session.getUserProperties() ) );
+
         for ( final ExtensionInfrastructure infra : infrastructure.values() )
         {
             infra.init( session.getTargetDir(), session.getRemoteRepositories(), session.getLocalRepository(),
                         session.getSettings(), session.getActiveProfiles() );
         }
 
+        final int parallelism = UserProperties.getInt( session.getUserProperties(), PomIO.PARALLELISM_PROPERTY,
+                                                       PomIO.DEFAULT_PARALLELISM );
+        pomIO.setParallelism( parallelism );
+        pomIO.setPatching( Boolean.parseBoolean( session.getUserProperties()
+                                                        .getProperty( PomIO.PATCHING_PROPERTY, "false" ) ) );
+
         orderedManipulators = new ArrayList<>( manipulators.values() );
         // The RESTState depends upon the VersionState being initialised. Therefore initialise in reverse order
         // and do a final sort to run in the correct order.
@@ -126,10 +149,44 @@ public class ManipulationManager
         // Now init the common state
         session.setState( new CommonState( session.getUserProperties()) );
 
+        modelIO.clearCache();
+        prefetchRemotePoms( session, parallelism );
     }
 
     /**
-     * Encapsulates both {@link #scan(List, ManipulationSession)} and {@link #applyManipulations(List)}
+     * Resolve every remote POM configured for alignment (dependencyManagement, pluginManagement and
+     * propertyManagement) concurrently, rather than one after another as each manipulator requires them.
+     */
+    private void prefetchRemotePoms( final ManipulationSession session, final int parallelism )
+    {
+        final Set<ProjectVersionRef> refs = new LinkedHashSet<>();
+
+        if ( session.isEnabled() )
+        {
+            final DependencyState dependencyState = session.getState( DependencyState.class );
+            final PluginState pluginState = session.getState( PluginState.class );
+            final PropertyState propertyState = session.getState( PropertyState.class );
+
+            if ( dependencyState != null && dependencyState.getRemoteBOMDepMgmt() != null )
+            {
+                refs.addAll( dependencyState.getRemoteBOMDepMgmt() );
+            }
+            if ( pluginState != null && pluginState.getRemotePluginMgmt() != null )
+            {
+                refs.addAll( pluginState.getRemotePluginMgmt() );
+            }
+            if ( propertyState != null && propertyState.getRemotePropertyMgmt() != null )
+            {
+                refs.addAll( propertyState.getRemotePropertyMgmt() );
+            }
+        }
+
+        logger.debug( "Prefetching remote POMs {}", refs );
+        modelIO.prefetch( refs, parallelism );
+    }
+
+    /**
+     * Encapsulates both {@link #scan(List, ManipulationSession)} and {@link #applyManipulations(List, ManipulationSession)}
      *
      * @param session the container session for manipulation.
      * @throws ManipulationException if an error occurs.
@@ -146,7 +203,7 @@ public class ManipulationManager
             logger.debug( "Got " + project + " (POM: " + project.getPom() + ")" );
         }
 
-        Set<Project> changed = applyManipulations( projects );
+        Set<Project> changed = applyManipulations( projects, session );
 
         // Create a marker file if we made some changes to prevent duplicate runs.
         if ( !changed.isEmpty() )
@@ -155,13 +212,21 @@ public class ManipulationManager
 
             GAV gav = new GAV();
 
-            pomIO.rewritePOMs( gav, changed );
+            final Set<Project> written = pomIO.rewritePOMs( gav, changed );
 
             try
             {
                 final VersioningState state = session.getState( VersioningState.class );
                 state.setExecutionRootModified( gav );
 
+                for ( final Project project : projects )
+                {
+                    if ( changed.contains( project ) && !written.contains( project ) )
+                    {
+                        session.getState( CommonState.class ).addUntouched( project );
+                    }
+                }
+
                 new File( session.getTargetDir().getParentFile(),
                           ManipulationManager.MARKER_PATH ).mkdirs();
 
@@ -215,16 +280,19 @@ public class ManipulationManager
      * </ul>
      *
      * @param projects the list of Projects to apply the changes to.
+     * @param session the container session for manipulation.
      * @return collection of the changed projects.
      * @throws ManipulationException if an error occurs.
      */
-    private Set<Project> applyManipulations( final List<Project> projects )
+    private Set<Project> applyManipulations( final List<Project> projects, final ManipulationSession session )
         throws ManipulationException
     {
         final Set<Project> changed = new HashSet<>();
         for ( final Manipulator manipulator : orderedManipulators )
         {
             final Set<Project> mChanged = manipulator.applyChanges( projects );
+            // Manipulators (and any scripts they run) may modify properties and profiles directly.
+            PropertyResolver.invalidate( session );
 
             if ( mChanged != null )
             {
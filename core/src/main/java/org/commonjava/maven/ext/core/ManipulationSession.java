@@ -22,11 +22,15 @@ import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.model.ReactorIndex;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
 import org.commonjava.maven.ext.common.util.ManifestUtils;
+import org.commonjava.maven.ext.common.util.PropertyGenerations;
+import org.commonjava.maven.ext.common.util.PropertyIndex;
 import org.commonjava.maven.ext.core.impl.Manipulator;
 import org.commonjava.maven.ext.core.state.State;
 import org.commonjava.maven.ext.core.state.VersioningState;
+import org.commonjava.maven.ext.core.util.StrictValueCache;
 
 import java.io.File;
 import java.util.HashMap;
@@ -63,6 +67,17 @@ public class ManipulationSession
      */
     private List<Project> projects;
 
+    /**
+     * Lookup tables over {@link #projects}.
+     */
+    private ReactorIndex reactorIndex;
+
+    private PropertyIndex propertyIndex;
+
+    private final PropertyGenerations propertyGenerations = new PropertyGenerations();
+
+    private StrictValueCache strictValueCache = new StrictValueCache();
+
     private ManipulationException error;
 
     public  ManipulationSession()
@@ -107,6 +122,7 @@ public class ManipulationSession
     public void setMavenSession( final MavenSession mavenSession )
     {
         this.mavenSession = mavenSession;
+        this.strictValueCache = new StrictValueCache();
     }
 
     @Override
@@ -119,6 +135,7 @@ public class ManipulationSession
     public void setProjects( final List<Project> projects )
     {
         this.projects = projects;
+        this.reactorIndex = projects == null ? null : new ReactorIndex( projects );
     }
 
     public List<Project> getProjects()
@@ -126,6 +143,34 @@ public class ManipulationSession
         return projects;
     }
 
+    /**
+     * @return the index over the projects of the reactor, or null if the projects have not been set.
+     */
+    public ReactorIndex getReactorIndex()
+    {
+        return reactorIndex;
+    }
+
+    /**
+     * @return the index of property definitions, rebuilt if properties have been added or removed since it was created.
+     */
+    public synchronized PropertyIndex getPropertyIndex()
+    {
+        if ( propertyIndex == null || !propertyIndex.isCurrent() )
+        {
+            propertyIndex = new PropertyIndex( this );
+        }
+        return propertyIndex;
+    }
+
+    /**
+     * @return the memo of strict version-alignment checks for this session.
+     */
+    public StrictValueCache getStrictValueCache()
+    {
+        return strictValueCache;
+    }
+
     @Override
     public List<ArtifactRepository> getRemoteRepositories()
     {
@@ -202,6 +247,12 @@ public class ManipulationSession
         return mavenSession == null ? null : mavenSession.getSettings();
     }
 
+    @Override
+    public PropertyGenerations getPropertyGenerations()
+    {
+        return propertyGenerations;
+    }
+
 
     /**
      * Checks all known states to determine whether any are enabled. Will ignore any states within
@@ -31,11 +31,15 @@ import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.model.ReactorIndex;
+import org.commonjava.maven.ext.common.util.PropertyResolver;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.state.CommonState;
 import org.commonjava.maven.ext.core.state.DependencyState;
 import org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence;
 import org.commonjava.maven.ext.core.state.RESTState;
+import org.commonjava.maven.ext.core.util.ModuleOverrideRules;
+import org.commonjava.maven.ext.core.util.OverrideTable;
 import org.commonjava.maven.ext.core.util.PropertiesUtils;
 import org.commonjava.maven.ext.core.util.WildcardMap;
 import org.commonjava.maven.ext.io.ModelIO;
@@ -46,15 +50,18 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
-import static org.apache.commons.lang.StringUtils.join;
 import static org.commonjava.maven.ext.core.util.IdUtils.ga;
 import static org.commonjava.maven.ext.core.util.IdUtils.gav;
 
@@ -132,7 +139,7 @@ public class DependencyManipulator implements Manipulator
      * @return the loaded overrides
      * @throws ManipulationException if an error occurs.
      */
-    private Map<ArtifactRef, String> loadRemoteOverrides() throws ManipulationException
+    private OverrideTable loadRemoteOverrides() throws ManipulationException
     {
         final DependencyState depState = session.getState( DependencyState.class );
         final RESTState restState = session.getState( RESTState.class );
@@ -144,7 +151,7 @@ public class DependencyManipulator implements Manipulator
         // Which is useful for strictAlignment scenarios (although undefined for non-strict).
         Map<ArtifactRef, String> restOverrides = depState.getRemoteRESTOverrides();
         Map<ArtifactRef, String> bomOverrides = new LinkedHashMap<>();
-        Map<ArtifactRef, String> mergedOverrides = new LinkedHashMap<>();
+        OverrideTable mergedOverrides = OverrideTable.empty();
 
         if ( gavs != null )
         {
@@ -163,7 +170,7 @@ public class DependencyManipulator implements Manipulator
 
         if ( depState.getPrecedence() == DependencyPrecedence.BOM )
         {
-            mergedOverrides = bomOverrides;
+            mergedOverrides = new OverrideTable( bomOverrides );
             if ( mergedOverrides.isEmpty() )
             {
                 String msg = restState.isEnabled() ? "dependencySource for restURL" : "dependencyManagement";
@@ -173,7 +180,7 @@ public class DependencyManipulator implements Manipulator
         }
         if ( depState.getPrecedence() == DependencyPrecedence.REST )
         {
-            mergedOverrides = restOverrides;
+            mergedOverrides = new OverrideTable( restOverrides );
             if ( mergedOverrides.isEmpty() )
             {
                 logger.warn( "No dependencies found for dependencySource {}. Has restURL been configured? ", depState.getPrecedence() );
@@ -181,16 +188,11 @@ public class DependencyManipulator implements Manipulator
         }
         else if ( depState.getPrecedence() == DependencyPrecedence.RESTBOM )
         {
-            mergedOverrides = bomOverrides;
-
-            removeDuplicateArtifacts( mergedOverrides, restOverrides );
-            mergedOverrides.putAll( restOverrides );
+            mergedOverrides = OverrideTable.merge( bomOverrides, restOverrides );
         }
         else if ( depState.getPrecedence() == DependencyPrecedence.BOMREST )
         {
-            mergedOverrides = restOverrides;
-            removeDuplicateArtifacts( mergedOverrides, bomOverrides );
-            mergedOverrides.putAll( bomOverrides );
+            mergedOverrides = OverrideTable.merge( restOverrides, bomOverrides );
         }
         logger.info ( "Remote precedence is {}", depState.getPrecedence() );
         logger.debug ("Final remote override list is {}", mergedOverrides);
@@ -198,48 +200,46 @@ public class DependencyManipulator implements Manipulator
     }
 
 
-    private void removeDuplicateArtifacts( Map<ArtifactRef, String> mergedOverrides, Map<ArtifactRef, String> targetOverrides )
-    {
-        Iterator<ArtifactRef> i = mergedOverrides.keySet().iterator();
-        while ( i.hasNext() )
-        {
-            ArtifactRef key = i.next();
-            ProjectRef pRef = key.asProjectRef();
-
-            for ( ArtifactRef target : targetOverrides.keySet() )
-            {
-                if ( pRef.equals( target.asProjectRef() ) )
-                {
-                    logger.debug( "From source overrides artifact {} clashes with target {}", key, target );
-                    i.remove();
-                    break;
-                }
-            }
-        }
-    }
-
     @Override
     public int getExecutionIndex()
     {
         return 40;
     }
 
-    private Set<Project> internalApplyChanges( final List<Project> projects, Map<ArtifactRef, String> overrides )
+    private Set<Project> internalApplyChanges( final List<Project> projects, final OverrideTable overrides )
                     throws ManipulationException
     {
         final DependencyState state = session.getState( DependencyState.class );
         final Set<Project> result = new HashSet<>();
 
-        for ( final Project project : projects )
+        // The reactor is the same for every module so only remove its GAs once.
+        final OverrideTable reactorOverrides = removeReactorGAs( overrides );
+        final ModuleOverrideRules moduleRules;
+        try
+        {
+            moduleRules = new ModuleOverrideRules( state.getDependencyExclusions() );
+        }
+        catch ( InvalidRefException e )
         {
-            final Model model = project.getModel();
+            logger.error( "Invalid module exclusion override {} ", state.getDependencyExclusions() );
+            throw e;
+        }
 
-            if (!overrides.isEmpty() || !state.getDependencyExclusions().isEmpty())
+        if (!overrides.isEmpty() || !state.getDependencyExclusions().isEmpty())
+        {
+            if ( state.getParallelism() > 1 && projects.size() > 1 )
             {
-                apply( project, model, overrides );
-
-                result.add( project );
+                applyConcurrently( projects, state.getParallelism(), reactorOverrides, moduleRules );
             }
+            else
+            {
+                for ( final Project project : projects )
+                {
+                    apply( project, project.getModel(), reactorOverrides, moduleRules, versionPropertyUpdateMap,
+                           explicitVersionPropertyUpdateMap );
+                }
+            }
+            result.addAll( projects );
         }
 
         // If we've changed something now update any old properties with the new values.
@@ -264,7 +264,9 @@ public class DependencyManipulator implements Manipulator
                         logger.info( "Unable to find a property for {} to update", entry.getKey() );
                         logger.info( "Adding property {} with {} ", entry.getKey(), entry.getValue() );
                         // We know the inheritance root is at position 0 in the inherited list...
-                        project.getInheritedList().get( 0 ).getModel().getProperties().setProperty( entry.getKey(), entry.getValue() );
+                        final Project root = project.getInheritedList().get( 0 );
+                        root.getModel().getProperties().setProperty( entry.getKey(), entry.getValue() );
+                        PropertyResolver.invalidate( session, root );
                     }
                 }
             }
@@ -287,7 +289,9 @@ public class DependencyManipulator implements Manipulator
                         logger.info( "Unable to find a property for {} to update for explicit overrides", entry.getKey() );
                         logger.info( "Adding property {} with {} ", entry.getKey(), entry.getValue() );
                         // We know the inheritance root is at position 0 in the inherited list...
-                        project.getInheritedList().get( 0 ).getModel().getProperties().setProperty( entry.getKey(), entry.getValue() );
+                        final Project root = project.getInheritedList().get( 0 );
+                        root.getModel().getProperties().setProperty( entry.getKey(), entry.getValue() );
+                        PropertyResolver.invalidate( session, root );
                     }
                 }
             }
@@ -296,33 +300,141 @@ public class DependencyManipulator implements Manipulator
     }
 
     /**
-     * Applies dependency overrides to the project.
+     * Applies dependency overrides to the projects concurrently. The models of parent projects are read while
+     * aligning the projects inheriting from them (for their properties and, through the interpolator, the inheritance
+     * root itself) so the inheritance roots and any other parents are aligned first, sequentially and in reactor
+     * order ; only the remaining projects, which no other project reads, are then aligned concurrently.
+     * <p>
+     * Each project records its property changes into its own buffer (as {@link PropertiesUtils#cacheProperty} only
+     * ever records changes against the project being aligned); the buffers are then merged in reactor order so that
+     * the subsequent property update pass sees exactly what a sequential run would have recorded.
      */
-    private void apply( final Project project, final Model model, final Map<ArtifactRef, String> overrides )
+    private void applyConcurrently( final List<Project> projects, final int parallelism,
+                                    final OverrideTable overrides, final ModuleOverrideRules moduleRules )
+                    throws ManipulationException
+    {
+        final Set<Project> parents = new HashSet<>();
+        for ( final Project project : projects )
+        {
+            if ( project.getProjectParent() != null )
+            {
+                parents.add( project.getProjectParent() );
+            }
+        }
+
+        final List<Map<Project, Map<String, String>>> versionBuffers = new ArrayList<>( projects.size() );
+        final List<Map<Project, Map<String, String>>> explicitBuffers = new ArrayList<>( projects.size() );
+        final List<Callable<Void>> tasks = new ArrayList<>( projects.size() );
+
+        for ( final Project project : projects )
+        {
+            final Map<Project, Map<String, String>> versionBuffer = buffer( project, versionPropertyUpdateMap );
+            final Map<Project, Map<String, String>> explicitBuffer = buffer( project, explicitVersionPropertyUpdateMap );
+
+            versionBuffers.add( versionBuffer );
+            explicitBuffers.add( explicitBuffer );
+
+            if ( project.isInheritanceRoot() || parents.contains( project ) )
+            {
+                apply( project, project.getModel(), overrides, moduleRules, versionBuffer, explicitBuffer );
+                continue;
+            }
+            tasks.add( new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                                throws ManipulationException
+                {
+                    apply( project, project.getModel(), overrides, moduleRules, versionBuffer, explicitBuffer );
+                    return null;
+                }
+            } );
+        }
+
+        final ExecutorService executor = new ForkJoinPool( parallelism );
+        try
+        {
+            for ( final Future<Void> future : executor.invokeAll( tasks ) )
+            {
+                future.get();
+            }
+
+            for ( int i = 0; i < projects.size(); i++ )
+            {
+                versionPropertyUpdateMap.putAll( versionBuffers.get( i ) );
+                explicitVersionPropertyUpdateMap.putAll( explicitBuffers.get( i ) );
+            }
+        }
+        catch ( final ExecutionException e )
+        {
+            final Throwable cause = e.getCause();
+            if ( cause instanceof ManipulationException )
+            {
+                throw (ManipulationException) cause;
+            }
+            else if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            else if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw new ManipulationException( "Problem aligning dependencies: %s", cause, cause.getMessage() );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ManipulationException( "Interrupted while aligning dependencies", e );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return a buffer for the property changes of a single project, holding any changes already recorded for it.
+     */
+    private static Map<Project, Map<String, String>> buffer( final Project project,
+                                                             final Map<Project, Map<String, String>> recorded )
+    {
+        final Map<Project, Map<String, String>> buffer = new LinkedHashMap<>( 2 );
+        if ( recorded.containsKey( project ) )
+        {
+            buffer.put( project, recorded.get( project ) );
+        }
+        return buffer;
+    }
+
+    /**
+     * Applies dependency overrides to the project. Any property changes are recorded, keyed by the project, in the
+     * supplied maps rather than applied.
+     */
+    private void apply( final Project project, final Model model, final OverrideTable overrides,
+                        final ModuleOverrideRules moduleRules,
+                        final Map<Project, Map<String, String>> versionPropertyUpdateMap,
+                        final Map<Project, Map<String, String>> explicitVersionPropertyUpdateMap )
                     throws ManipulationException
     {
         // Map of Group : Map of artifactId [ may be wildcard ] : value
         final WildcardMap<String> explicitOverrides = new WildcardMap<>();
         final String projectGA = ga( project );
-        final DependencyState dependencyState = session.getState( DependencyState.class );
         final CommonState commonState = session.getState( CommonState.class );
 
         logger.info ("Processing project {} ", projectGA);
 
-        Map<ArtifactRef, String> moduleOverrides = new LinkedHashMap<>( overrides );
-        moduleOverrides = removeReactorGAs( moduleOverrides );
+        final OverrideTable moduleOverrides;
 
         try
         {
-            moduleOverrides = applyModuleVersionOverrides( projectGA,
-                                                           dependencyState.getDependencyExclusions(),
-                                                           moduleOverrides, explicitOverrides );
+            moduleOverrides = moduleRules.apply( projectGA, overrides, explicitOverrides );
             logger.debug( "Module overrides are:\n{}", moduleOverrides );
             logger.debug( "Explicit overrides are:\n{}", explicitOverrides);
         }
         catch ( InvalidRefException e )
         {
-            logger.error( "Invalid module exclusion override {} : {} ", moduleOverrides, explicitOverrides );
+            logger.error( "Invalid module exclusion override {} : {} ", overrides, explicitOverrides );
             throw e;
         }
 
@@ -331,39 +443,36 @@ public class DependencyManipulator implements Manipulator
             // Handle the situation where the top level parent refers to a prior build that is in the BOM.
             if ( project.getModelParent() != null)
             {
-                for ( Map.Entry<ArtifactRef, String> entry : moduleOverrides.entrySet() )
+                for ( final ArtifactRef override : moduleOverrides.get( SimpleProjectRef.parse( ga( project.getModelParent() ) ) ) )
                 {
                     String oldValue = project.getModelParent().getVersion();
-                    String newValue = entry.getValue();
+                    String newValue = moduleOverrides.get( override );
 
-                    if ( entry.getKey().asProjectRef().equals( SimpleProjectRef.parse( ga(project.getModelParent()) ) ))
+                    if ( commonState.getStrict() )
                     {
-                        if ( commonState.getStrict() )
+                        if ( !PropertiesUtils.checkStrictValue( session, oldValue, newValue ) )
                         {
-                            if ( !PropertiesUtils.checkStrictValue( session, oldValue, newValue ) )
+                            if ( commonState.getFailOnStrictViolation() )
                             {
-                                if ( commonState.getFailOnStrictViolation() )
-                                {
-                                    throw new ManipulationException(
-                                                    "Parent reference {} replacement: {} of original version: {} violates the strict version-alignment rule!",
-                                                    ga( project.getModelParent() ), newValue, oldValue );
-                                }
-                                else
-                                {
-                                    logger.warn( "Parent reference {} replacement: {} of original version: {} violates the strict version-alignment rule!",
-                                                 ga( project.getModelParent() ), newValue, oldValue );
-                                    // Ignore the dependency override. As found has been set to true it won't inject
-                                    // a new property either.
-                                    continue;
-                                }
+                                throw new ManipulationException(
+                                                "Parent reference {} replacement: {} of original version: {} violates the strict version-alignment rule!",
+                                                ga( project.getModelParent() ), newValue, oldValue );
+                            }
+                            else
+                            {
+                                logger.warn( "Parent reference {} replacement: {} of original version: {} violates the strict version-alignment rule!",
+                                             ga( project.getModelParent() ), newValue, oldValue );
+                                // Ignore the dependency override. As found has been set to true it won't inject
+                                // a new property either.
+                                continue;
                             }
                         }
-
-                        logger.debug( " Modifying parent reference from {} to {} for {} ",
-                                      model.getParent().getVersion(), newValue, ga( project.getModelParent() ) );
-                        model.getParent().setVersion( newValue );
-                        break;
                     }
+
+                    logger.debug( " Modifying parent reference from {} to {} for {} ",
+                                  model.getParent().getVersion(), newValue, ga( project.getModelParent() ) );
+                    model.getParent().setVersion( newValue );
+                    break;
                 }
 
                 // Apply any explicit overrides to the top level parent. Convert it to a simulated
@@ -383,12 +492,9 @@ public class DependencyManipulator implements Manipulator
                 // Apply overrides to project dependency management
                 logger.debug( "Applying overrides to managed dependencies for: {}", projectGA );
 
-                final Map<ArtifactRef, String> nonMatchingVersionOverrides =
+                final Set<ArtifactRef> matchedOverrides =
                                 applyOverrides( project, project.getResolvedManagedDependencies( session ),
-                                                explicitOverrides, moduleOverrides );
-
-                final Map<ArtifactRef, String> matchedOverrides = new LinkedHashMap<>( moduleOverrides );
-                matchedOverrides.keySet().removeAll( nonMatchingVersionOverrides.keySet() );
+                                                explicitOverrides, moduleOverrides, versionPropertyUpdateMap );
 
                 applyExplicitOverrides( project, project.getResolvedManagedDependencies( session ), explicitOverrides,
                                         commonState, explicitVersionPropertyUpdateMap );
@@ -398,9 +504,9 @@ public class DependencyManipulator implements Manipulator
                     final List<Dependency> extraDeps = new ArrayList<>();
 
                     // Add dependencies to Dependency Management which did not match any existing dependency
-                    for ( final ArtifactRef var : overrides.keySet() )
+                    for ( final ArtifactRef var : moduleOverrides.asMap().keySet() )
                     {
-                        if ( !nonMatchingVersionOverrides.containsKey( var ) )
+                        if ( matchedOverrides.contains( var ) )
                         {
                             // This one in the remote pom was already dealt with ; continue.
                             continue;
@@ -449,7 +555,7 @@ public class DependencyManipulator implements Manipulator
             {
                 logger.debug( "Applying overrides to managed dependencies for: {}", projectGA );
                 applyOverrides( project, project.getResolvedManagedDependencies( session ), explicitOverrides,
-                                moduleOverrides );
+                                moduleOverrides, versionPropertyUpdateMap );
                 applyExplicitOverrides( project, project.getResolvedManagedDependencies( session ), explicitOverrides,
                                         commonState, explicitVersionPropertyUpdateMap );
             }
@@ -463,7 +569,8 @@ public class DependencyManipulator implements Manipulator
         {
             logger.debug( "Applying overrides to concrete dependencies for: {}", projectGA );
             // Apply overrides to project direct dependencies
-            applyOverrides( project, project.getResolvedDependencies( session ), explicitOverrides, moduleOverrides );
+            applyOverrides( project, project.getResolvedDependencies( session ), explicitOverrides, moduleOverrides,
+                            versionPropertyUpdateMap );
             applyExplicitOverrides( project, project.getResolvedDependencies( session ), explicitOverrides, commonState, explicitVersionPropertyUpdateMap );
 
             final HashMap<Profile, HashMap<ArtifactRef, Dependency>> pd = project.getResolvedProfileDependencies( session );
@@ -471,12 +578,12 @@ public class DependencyManipulator implements Manipulator
 
             for ( Profile p : pd.keySet())
             {
-                applyOverrides( project, pd.get( p ), explicitOverrides, moduleOverrides );
+                applyOverrides( project, pd.get( p ), explicitOverrides, moduleOverrides, versionPropertyUpdateMap );
                 applyExplicitOverrides( project, pd.get( p ), explicitOverrides, commonState, explicitVersionPropertyUpdateMap );
             }
             for ( Profile p : pmd.keySet())
             {
-                applyOverrides( project, pmd.get( p ), explicitOverrides, moduleOverrides );
+                applyOverrides( project, pmd.get( p ), explicitOverrides, moduleOverrides, versionPropertyUpdateMap );
                 applyExplicitOverrides( project, pmd.get( p ), explicitOverrides, commonState, explicitVersionPropertyUpdateMap );
             }
         }
@@ -562,26 +669,27 @@ public class DependencyManipulator implements Manipulator
     }
 
     /**
-     * Apply a set of version overrides to a list of dependencies. Return a set of the overrides which were not applied.
+     * Apply a set of version overrides to a list of dependencies. Return a set of the overrides which were matched.
      *
      * @param project The current Project
      * @param dependencies The list of dependencies
      * @param explicitOverrides Any explicitOverrides to track for ignoring
-     * @param overrides The map of dependency version overrides
-     * @return The map of overrides that were not matched in the dependencies
+     * @param overrides The table of dependency version overrides
+     * @param versionPropertyUpdateMap properties to update
+     * @return The overrides that were matched in the dependencies
      * @throws ManipulationException if an error occurs
      */
-    private Map<ArtifactRef, String> applyOverrides( final Project project, final HashMap<ArtifactRef, Dependency> dependencies,
-                                                     final WildcardMap<String> explicitOverrides, final Map<ArtifactRef, String> overrides )
+    private Set<ArtifactRef> applyOverrides( final Project project, final HashMap<ArtifactRef, Dependency> dependencies,
+                                             final WildcardMap<String> explicitOverrides, final OverrideTable overrides,
+                                             final Map<Project, Map<String, String>> versionPropertyUpdateMap )
                     throws ManipulationException
     {
-        // Duplicate the override map so unused overrides can be easily recorded
-        final Map<ArtifactRef, String> unmatchedVersionOverrides = new LinkedHashMap<>();
-        unmatchedVersionOverrides.putAll( overrides );
+        // Record the used overrides so the unused ones can be easily determined
+        final Set<ArtifactRef> matchedVersionOverrides = new HashSet<>();
 
         if ( dependencies == null || dependencies.size() == 0 )
         {
-            return unmatchedVersionOverrides;
+            return matchedVersionOverrides;
         }
 
         final CommonState commonState = session.getState( CommonState.class );
@@ -597,124 +705,121 @@ public class DependencyManipulator implements Manipulator
             // different modules. It is currently undefined what will happen if non-strict mode is enabled and
             // multiple versions are in the remote override list (be it from a bom or rest call). Actually, what
             // will most likely happen is last-wins.
-            for ( final Map.Entry<ArtifactRef, String> entry : overrides.entrySet() )
+            for ( final ArtifactRef override : overrides.get( depPr ) )
             {
-                ProjectRef groupIdArtifactId = entry.getKey().asProjectRef();
+                ProjectRef groupIdArtifactId = override.asProjectRef();
 
-                if ( depPr.equals( groupIdArtifactId ) )
-                {
-                    final String oldVersion = dependencies.get( dependency ).getVersion();
-                    final String overrideVersion = entry.getValue();
-                    final String resolvedValue = dependency.getVersionString();
+                final String oldVersion = dependencies.get( dependency ).getVersion();
+                final String overrideVersion = overrides.get( override );
+                final String resolvedValue = dependency.getVersionString();
 
-                    if ( isEmpty( overrideVersion ) )
+                if ( isEmpty( overrideVersion ) )
+                {
+                    logger.warn( "Unable to align with an empty override version for " + groupIdArtifactId + "; ignoring" );
+                }
+                else if ( isEmpty( oldVersion ) )
+                {
+                    logger.debug( "Dependency is a managed version for " + groupIdArtifactId + "; ignoring" );
+                }
+                // If we have an explicitOverride, this will always override the dependency changes made here.
+                // By avoiding the potential duplicate work it also avoids a possible property clash problem.
+                else if ( explicitOverrides.containsKey( depPr ) )
+                {
+                    logger.debug ("Dependency {} matches known explicit override so not performing initial override pass.", depPr);
+                    matchedVersionOverrides.add( override );
+                }
+                // If we're doing strict matching with properties, then the original parts should match.
+                // i.e. assuming original resolved value is 1.2 and potential new value is 1.2.rebuild-1
+                // then this is fine to continue. If the original is 1.2 and potential new value is 1.3.rebuild-1
+                // then don't bother to attempt to cache the property as the strict check would fail.
+                // This extra check avoids an erroneous "Property replacement clash" error.
+
+                // Can't blindly compare resolvedValue [original] against ar as ar / overrideVersion is the new GAV. We don't
+                // have immediate access to the original property so the closest that is feasible is verify strict matching.
+                else if ( strict && oldVersion.contains( "$" ) &&
+                                ! PropertiesUtils.checkStrictValue( session, resolvedValue, overrideVersion) )
+                {
+                    logger.debug ("Original fully resolved version {} of {} does not match override version {} -> {} so ignoring",
+                                  resolvedValue, dependency, override, overrideVersion);
+                    if ( commonState.getFailOnStrictViolation() )
                     {
-                        logger.warn( "Unable to align with an empty override version for " + groupIdArtifactId + "; ignoring" );
+                        throw new ManipulationException(
+                                        "For {} replacing original property version {} (fully resolved: {} ) with new version {} for {} violates the strict version-alignment rule!",
+                                        depPr.toString(), dependencies.get( dependency ).getVersion(), resolvedValue, override.getVersionString(), override.asProjectRef().toString());
                     }
-                    else if ( isEmpty( oldVersion ) )
+                    else
                     {
-                        logger.debug( "Dependency is a managed version for " + groupIdArtifactId + "; ignoring" );
+                        logger.warn( "Replacing original property version {} with new version {} for {} violates the strict version-alignment rule!",
+                                     resolvedValue, overrideVersion, dependencies.get( dependency ).getVersion() );
                     }
-                    // If we have an explicitOverride, this will always override the dependency changes made here.
-                    // By avoiding the potential duplicate work it also avoids a possible property clash problem.
-                    else if ( explicitOverrides.containsKey( depPr ) )
+                }
+                else
+                {
+                    // Too much spurious logging with project.version.
+                    if ( ! oldVersion.equals( "${project.version}" ) )
                     {
-                        logger.debug ("Dependency {} matches known explicit override so not performing initial override pass.", depPr);
-                        unmatchedVersionOverrides.remove( entry.getKey() );
+                        logger.info( "Updating version {} for dependency {} from {}.", overrideVersion, dependency, project.getPom() );
                     }
-                    // If we're doing strict matching with properties, then the original parts should match.
-                    // i.e. assuming original resolved value is 1.2 and potential new value is 1.2.rebuild-1
-                    // then this is fine to continue. If the original is 1.2 and potential new value is 1.3.rebuild-1
-                    // then don't bother to attempt to cache the property as the strict check would fail.
-                    // This extra check avoids an erroneous "Property replacement clash" error.
-
-                    // Can't blindly compare resolvedValue [original] against ar as ar / overrideVersion is the new GAV. We don't
-                    // have immediate access to the original property so the closest that is feasible is verify strict matching.
-                    else if ( strict && oldVersion.contains( "$" ) &&
-                                    ! PropertiesUtils.checkStrictValue( session, resolvedValue, overrideVersion) )
+
+                    if ( ! PropertiesUtils.cacheProperty( project, commonState, versionPropertyUpdateMap, oldVersion, overrideVersion, override, false ))
                     {
-                        logger.debug ("Original fully resolved version {} of {} does not match override version {} -> {} so ignoring",
-                                      resolvedValue, dependency, entry.getKey(), overrideVersion);
-                        if ( commonState.getFailOnStrictViolation() )
+                        if ( oldVersion.equals( "${project.version}" ) )
                         {
-                            throw new ManipulationException(
-                                            "For {} replacing original property version {} (fully resolved: {} ) with new version {} for {} violates the strict version-alignment rule!",
-                                            depPr.toString(), dependencies.get( dependency ).getVersion(), resolvedValue, entry.getKey().getVersionString(), entry.getKey().asProjectRef().toString());
+                            logger.debug( "For dependency {} ; version is built in {} so skipping inlining {}", groupIdArtifactId, oldVersion,
+                                          overrideVersion );
                         }
-                        else
+                        else if ( strict && ! PropertiesUtils.checkStrictValue( session, resolvedValue, overrideVersion) )
                         {
-                            logger.warn( "Replacing original property version {} with new version {} for {} violates the strict version-alignment rule!",
-                                         resolvedValue, overrideVersion, dependencies.get( dependency ).getVersion() );
+                            if ( commonState.getFailOnStrictViolation() )
+                            {
+                                throw new ManipulationException(
+                                                 "Replacing original version {} in dependency {} with new version {} violates the strict version-alignment rule!",
+                                                 oldVersion, groupIdArtifactId.toString(), overrideVersion );
+                            }
+                            else
+                            {
+                                logger.warn( "Replacing original version {} in dependency {} with new version {} violates the strict version-alignment rule!",
+                                             oldVersion, groupIdArtifactId, overrideVersion );
+                            }
                         }
-                    }
-                    else
-                    {
-                        // Too much spurious logging with project.version.
-                        if ( ! oldVersion.equals( "${project.version}" ) )
+                        else
                         {
-                            logger.info( "Updating version {} for dependency {} from {}.", overrideVersion, dependency, project.getPom() );
-                        }
+                            logger.debug( "Altered dependency {} : {} -> {}", groupIdArtifactId, oldVersion,
+                                          overrideVersion );
 
-                        if ( ! PropertiesUtils.cacheProperty( project, commonState, versionPropertyUpdateMap, oldVersion, overrideVersion, entry.getKey(), false ))
-                        {
-                            if ( oldVersion.equals( "${project.version}" ) )
+                            if ( oldVersion.contains( "${" ) )
                             {
-                                logger.debug( "For dependency {} ; version is built in {} so skipping inlining {}", groupIdArtifactId, oldVersion,
-                                              overrideVersion );
-                            }
-                            else if ( strict && ! PropertiesUtils.checkStrictValue( session, resolvedValue, overrideVersion) )
-                            {
-                                if ( commonState.getFailOnStrictViolation() )
+                                String suffix = PropertiesUtils.getSuffix( session );
+                                String replaceVersion;
+
+                                if ( commonState.getStrictIgnoreSuffix() && oldVersion.contains( suffix ) )
                                 {
-                                    throw new ManipulationException(
-                                                     "Replacing original version {} in dependency {} with new version {} violates the strict version-alignment rule!",
-                                                     oldVersion, groupIdArtifactId.toString(), overrideVersion );
+                                    replaceVersion = StringUtils.substringBefore( oldVersion, suffix );
+                                    replaceVersion += suffix + StringUtils.substringAfter( overrideVersion, suffix );
                                 }
                                 else
                                 {
-                                    logger.warn( "Replacing original version {} in dependency {} with new version {} violates the strict version-alignment rule!",
-                                                 oldVersion, groupIdArtifactId, overrideVersion );
+                                    replaceVersion = oldVersion + StringUtils.removeStart( overrideVersion, resolvedValue );
                                 }
+                                logger.debug ( "Resolved value is {} and replacement version is {} ", resolvedValue, replaceVersion );
+
+                                // In this case the previous value couldn't be cached even though it contained a property
+                                // as it was either multiple properties or a property combined with a hardcoded value. Therefore
+                                // just append the suffix.
+                                dependencies.get( dependency ).setVersion( replaceVersion );
                             }
                             else
                             {
-                                logger.debug( "Altered dependency {} : {} -> {}", groupIdArtifactId, oldVersion,
-                                              overrideVersion );
-
-                                if ( oldVersion.contains( "${" ) )
-                                {
-                                    String suffix = PropertiesUtils.getSuffix( session );
-                                    String replaceVersion;
-
-                                    if ( commonState.getStrictIgnoreSuffix() && oldVersion.contains( suffix ) )
-                                    {
-                                        replaceVersion = StringUtils.substringBefore( oldVersion, suffix );
-                                        replaceVersion += suffix + StringUtils.substringAfter( overrideVersion, suffix );
-                                    }
-                                    else
-                                    {
-                                        replaceVersion = oldVersion + StringUtils.removeStart( overrideVersion, resolvedValue );
-                                    }
-                                    logger.debug ( "Resolved value is {} and replacement version is {} ", resolvedValue, replaceVersion );
-
-                                    // In this case the previous value couldn't be cached even though it contained a property
-                                    // as it was either multiple properties or a property combined with a hardcoded value. Therefore
-                                    // just append the suffix.
-                                    dependencies.get( dependency ).setVersion( replaceVersion );
-                                }
-                                else
-                                {
-                                    dependencies.get( dependency ).setVersion( overrideVersion );
-                                }
+                                dependencies.get( dependency ).setVersion( overrideVersion );
                             }
                         }
-                        unmatchedVersionOverrides.remove( entry.getKey() );
                     }
+                    matchedVersionOverrides.add( override );
                 }
             }
         }
 
-        return unmatchedVersionOverrides;
+        return matchedVersionOverrides;
     }
 
     /**
@@ -722,169 +827,26 @@ public class DependencyManipulator implements Manipulator
      * Projects in the reactor include things like inter-module dependencies
      * which should never be overridden.
      * @param versionOverrides current set of ArtifactRef:newVersion overrides.
-     * @return A new Map with the reactor GAs removed.
+     * @return A table with the reactor GAs removed.
      */
-    private Map<ArtifactRef, String> removeReactorGAs( final Map<ArtifactRef, String> versionOverrides )
+    private OverrideTable removeReactorGAs( final OverrideTable versionOverrides )
                     throws ManipulationException
     {
-        final Map<ArtifactRef, String> reducedVersionOverrides = new LinkedHashMap<>( versionOverrides );
-        for ( final Project project : session.getProjects() )
-        {
-            final String reactorGA = gav( project.getModel() );
-            reducedVersionOverrides.remove( SimpleArtifactRef.parse( reactorGA ) );
-        }
-        return reducedVersionOverrides;
-    }
-
-    /**
-     * Remove module overrides which do not apply to the current module. Searches the full list of version overrides
-     * for any keys which contain the '@' symbol.  Removes these from the version overrides list, and add them back
-     * without the '@' symbol only if they apply to the current module.
-     *
-     * @param projectGA the current project group : artifact
-     * @param originalOverrides The full list of version overrides, both global and module specific
-     * @param moduleOverrides are individual overrides e.g. group:artifact@groupId:artifactId :: value
-     * @param explicitOverrides a custom map to handle wildcard overrides
-     * @return The map of global and module specific overrides which apply to the given module
-     * @throws ManipulationException if an error occurs
-     */
-    private Map<ArtifactRef, String> applyModuleVersionOverrides( final String projectGA,
-                                                                  final Map<String, String> moduleOverrides,
-                                                                  Map<ArtifactRef, String> originalOverrides,
-                                                                  final WildcardMap explicitOverrides )
-                    throws ManipulationException
-    {
-        final Map<ArtifactRef, String> remainingOverrides = new LinkedHashMap<>( originalOverrides );
-
-        logger.debug( "Calculating module-specific version overrides. Starting with:\n  {}",
-                      join( remainingOverrides.entrySet(), "\n  " ) );
-
-        // These modes correspond to two different kinds of passes over the available override properties:
-        // 1. Module-specific: Don't process wildcard overrides here, allow module-specific settings to take precedence.
-        // 2. Wildcards: Add these IF there is no corresponding module-specific override.
-        final boolean wildcardMode[] = { false, true };
-        for ( boolean aWildcardMode : wildcardMode )
+        final ReactorIndex reactor = session.getReactorIndex();
+        final List<ArtifactRef> reactorOverrides = new ArrayList<>();
+        for ( final ArtifactRef override : versionOverrides.asMap().keySet() )
         {
-            for ( final String currentKey : new HashSet<>( moduleOverrides.keySet() ) )
+            // The model version may have been changed by an earlier manipulator so compare against it rather than
+            // the version the reactor was indexed with.
+            for ( final Project project : reactor.getProjects( override ) )
             {
-                final String currentValue = moduleOverrides.get( currentKey );
-
-                logger.debug( "Processing key {} for override with value {}", currentKey, currentValue );
-
-                if ( !currentKey.contains( "@" ) )
-                {
-                    logger.debug( "Not an override. Skip." );
-                    continue;
-                }
-
-                final boolean isModuleWildcard = currentKey.endsWith( "@*" );
-                logger.debug( "Is wildcard? {} and in module wildcard mode? {} ", isModuleWildcard, aWildcardMode );
-
-                // process module-specific overrides (first)
-                if ( !aWildcardMode )
+                if ( SimpleArtifactRef.parse( gav( project.getModel() ) ).equals( override ) )
                 {
-                    // skip wildcard overrides in this mode
-                    if ( isModuleWildcard )
-                    {
-                        logger.debug( "Not currently in wildcard mode. Skip." );
-                        continue;
-                    }
-
-                    final String[] artifactAndModule = currentKey.split( "@" );
-                    if ( artifactAndModule.length != 2 )
-                    {
-                        throw new ManipulationException( "Invalid format for exclusion key " + currentKey );
-                    }
-                    final String artifactGA = artifactAndModule[0];
-                    final ProjectRef moduleGA = SimpleProjectRef.parse( artifactAndModule[1] );
-
-                    logger.debug( "For artifact override: {}, comparing parsed module: {} to current project: {}",
-                                  artifactGA, moduleGA, projectGA );
-
-                    if ( moduleGA.toString().equals( projectGA ) ||
-                                    (
-                                        moduleGA.getArtifactId().equals( "*" ) &&
-                                        SimpleProjectRef.parse( projectGA ).getGroupId().equals( moduleGA.getGroupId()
-                                    )
-                        ) )
-                    {
-                        if ( currentValue != null && !currentValue.isEmpty() )
-                        {
-                            explicitOverrides.put( SimpleProjectRef.parse( artifactGA ), currentValue );
-                            logger.debug( "Overriding module dependency for {} with {} : {}", moduleGA, artifactGA,
-                                          currentValue );
-                        }
-                        else
-                        {
-                            // Override prevention...
-                            removeGA( remainingOverrides, SimpleProjectRef.parse( artifactGA ) );
-                            logger.debug( "For module {}, ignoring dependency override for {} ", moduleGA, artifactGA);
-                        }
-                    }
-                }
-                // process wildcard overrides (second)
-                else
-                {
-                    // skip module-specific overrides in this mode i.e. format of groupdId:artifactId@*=
-                    if ( !isModuleWildcard )
-                    {
-                        logger.debug( "Currently in wildcard mode. Skip." );
-                        continue;
-                    }
-
-                    final String artifactGA = currentKey.substring( 0, currentKey.length() - 2 );
-                    logger.debug( "For artifact override: {}, checking if current overrides already contain a module-specific version.",
-                                  artifactGA );
-
-                    if ( explicitOverrides.containsKey( SimpleProjectRef.parse( artifactGA ) ) )
-                    {
-                        logger.debug( "For artifact override: {}, current overrides already contain a module-specific version. Skip.",
-                                      artifactGA );
-                        continue;
-                    }
-
-                    // I think this is only used for e.g. dependencyExclusion.groupId:artifactId@*=<explicitVersion>
-                    if ( currentValue != null && !currentValue.isEmpty() )
-                    {
-                        logger.debug( "Overriding module dependency for {} with {} : {}", projectGA, artifactGA,
-                                      currentValue );
-                        explicitOverrides.put( SimpleProjectRef.parse( artifactGA ), currentValue );
-                    }
-                    else
-                    {
-                        // If we have a wildcard artifact we want to replace any prior explicit overrides
-                        // with this one i.e. this takes precedence.
-                        removeGA( remainingOverrides, SimpleProjectRef.parse( artifactGA ) );
-                        logger.debug( "Removing artifactGA " + artifactGA + " from overrides" );
-                    }
+                    reactorOverrides.add( override );
                 }
             }
         }
-
-        return remainingOverrides;
-    }
-
-    private void removeGA( Map<ArtifactRef, String> overrides, ProjectRef ref )
-    {
-        Iterator<ArtifactRef> it = overrides.keySet().iterator();
-
-        while ( it.hasNext() )
-        {
-            ArtifactRef a = it.next();
-
-            if ( a.asProjectRef().equals( ref ) ||
-                ( ref.getArtifactId().equals( "*" ) && a.getGroupId().equals( ref.getGroupId() ) ) ||
-                ( ref.getGroupId().equals( "*" ) && a.getArtifactId().equals( ref.getArtifactId() ) ) )
-            {
-                it.remove();
-            }
-            else if ( ref.getArtifactId().equals( "*" ) && ref.getGroupId().equals( "*" ) )
-            {
-                // For complete wildcard also cache the ignored module as we need the list later during
-                // property processing.
-                it.remove();
-            }
-        }
+        return versionOverrides.without( reactorOverrides );
     }
 
 }
@@ -182,7 +182,7 @@ public class DistributionEnforcingManipulator
             final List<Profile> profiles = ProfileUtils.getProfiles( session, model);
             if ( profiles != null )
             {
-                for ( final Profile profile :  ProfileUtils.getProfiles( session, model ) )
+                for ( final Profile profile : profiles )
                 {
                     enforceSkipFlag( profile, baseSkipSetting, project, changed, false );
                 }
@@ -29,6 +29,7 @@ import org.codehaus.plexus.util.xml.Xpp3DomUtils;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.PropertyResolver;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.state.CommonState;
 import org.commonjava.maven.ext.core.state.PluginState;
@@ -181,6 +182,7 @@ public class PluginManipulator
                             {
                                 logger.info( "Adding property {} with {} ", entry.getKey(), entry.getValue() );
                                 p.getModel().getProperties().setProperty( entry.getKey(), entry.getValue() );
+                                PropertyResolver.invalidate( session, p );
                             }
                         }
                     }
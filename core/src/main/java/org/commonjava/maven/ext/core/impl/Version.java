@@ -21,6 +21,8 @@ import org.slf4j.LoggerFactory;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -56,68 +58,42 @@ public class Version
      */
     private final static String DELIMITER_REGEX = "[.\\-_]";
 
-    /**
-     * Regular expression used to match version string delimiters
-     */
-    private final static String LEADING_DELIMITER_REGEX = "^" + DELIMITER_REGEX;
-
-    /**
-     * Regular expression used to match the major, minor, and micro versions
-     */
-    private final static String MMM_REGEX = "(\\d+)(" + DELIMITER_REGEX + "(\\d+)(" + DELIMITER_REGEX + "(\\d+))?)?";
-
-    private final static Pattern mmmPattern = Pattern.compile(MMM_REGEX);
-
     private final static String SNAPSHOT_SUFFIX = "SNAPSHOT";
 
-    private final static String SNAPSHOT_REGEX = "(.*?)((" + DELIMITER_REGEX + ")?((?i:" + SNAPSHOT_SUFFIX + ")))$";
-
-    private final static Pattern snapshotPattern = Pattern.compile(SNAPSHOT_REGEX);
-
     /**
-     * Regular expression used to match the parts of the qualifier "base-buildnum-snapshot"
-     * Note : Technically within the rebuild-numeric the dash is currently optional and can be any
-     *        delimeter type within the regex. It could be made mandatory via '{1}'.
+     * Upper bound on the number of entries in each of the parsed version and pattern caches.
      */
-    private final static String QUALIFIER_REGEX = "(.*?)((" + DELIMITER_REGEX + ")?(\\d+))?((" + DELIMITER_REGEX + ")?((?i:" + SNAPSHOT_SUFFIX + ")))?$";
-
-    private final static Pattern qualifierPattern = Pattern.compile(QUALIFIER_REGEX);
+    private final static int MAX_CACHE_SIZE = 4096;
 
     /**
-     * Version string must start with a digit to match the regex.  Otherwise we have only a
-     * qualifier.
+     * Intern table of parsed versions, keyed by version string.
      */
-    private final static String VERSION_REGEX = "(" + MMM_REGEX + ")" + "((" + DELIMITER_REGEX + ")?"
-            + "(" + QUALIFIER_REGEX + "))";
-
-    private final static Pattern versionPattern = Pattern.compile(VERSION_REGEX);
+    private final static ConcurrentMap<String, Parsed> parsed = new ConcurrentHashMap<>();
 
     /**
-     * Used to match valid OSGi version based on section 3.2.5 of the OSGi specification
+     * Compiled suffix and candidate build number patterns, keyed by regular expression.
      */
-    private final static String OSGI_VERSION_REGEX = "(\\d+)(\\.\\d+(\\.\\d+(\\.[\\w\\-_]+)?)?)?";
-
-    private final static Pattern osgiPattern = Pattern.compile(OSGI_VERSION_REGEX);
+    private final static ConcurrentMap<String, Pattern> patterns = new ConcurrentHashMap<>();
 
     // Prevent construction.
     private Version () {}
 
     public static String getBuildNumber(String version)
     {
-        Matcher qualifierMatcher = qualifierPattern.matcher( getQualifier( version ) );
-        if( qualifierMatcher.matches() && !isEmpty( qualifierMatcher.group( 4 ) ) )
+        String buildNumber = parse( version ).qualifierParts.number;
+        if( !isEmpty( buildNumber ) )
         {
-            return qualifierMatcher.group( 4 );
+            return buildNumber;
         }
         return EMPTY_STRING;
     }
 
     static String getMMM(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
+        Parsed p = parse( version );
+        if ( p.isVersion )
         {
-            return versionMatcher.group( 1 );
+            return p.mmm;
         }
         return EMPTY_STRING;
     }
@@ -131,12 +107,11 @@ public class Version
      */
     static String getOsgiMMM(String version, boolean fill)
     {
-        String mmm = getMMM( version );
-        Matcher mmmMatcher = mmmPattern.matcher( mmm );
-        if ( mmmMatcher.matches() )
+        Parsed p = parse( version );
+        if ( p.isVersion )
         {
-            String osgiMMM = mmmMatcher.group( 1 );
-            String minorVersion = mmmMatcher.group( 3 );
+            String osgiMMM = p.major;
+            String minorVersion = p.minor;
             if ( !isEmpty( minorVersion ) )
             {
                 osgiMMM += OSGI_VERSION_DELIMITER + minorVersion;
@@ -145,7 +120,7 @@ public class Version
             {
                 osgiMMM += OSGI_VERSION_DELIMITER + "0";
             }
-            String microVersion = mmmMatcher.group( 5 );
+            String microVersion = p.micro;
             if ( !isEmpty( microVersion ) )
             {
                 osgiMMM += OSGI_VERSION_DELIMITER + microVersion;
@@ -177,12 +152,7 @@ public class Version
 
     public static String getQualifier(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
-        {
-            return versionMatcher.group( 9 );
-        }
-        return removeLeadingDelimiter( version );
+        return parse( version ).qualifier;
     }
 
     /**
@@ -205,45 +175,40 @@ public class Version
      */
     public static String getQualifierBase(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
-        {
-            return versionMatcher.group( 10 );
-        }
-        Matcher qualifierMatcher = qualifierPattern.matcher( version );
-        if ( qualifierMatcher.matches() )
+        Parsed p = parse( version );
+        if ( p.isVersion )
         {
-            return qualifierMatcher.group( 1 );
+            return p.qualifierParts.base;
         }
-        return removeLeadingDelimiter( version );
+        return p.parts.base;
     }
 
     public static String getQualifierWithDelim(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
+        Parsed p = parse( version );
+        if ( p.isVersion )
         {
-            return versionMatcher.group( 7 );
+            return p.qualifierWithDelim;
         }
         return version;
     }
 
     public static String getSnapshot( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        if ( snapshotMatcher.matches() )
+        Parts parts = parse( version ).parts;
+        if ( parts.snapshot != null )
         {
-            return snapshotMatcher.group(4);
+            return parts.snapshot;
         }
         return EMPTY_STRING;
     }
 
     public static String getSnapshotWithDelim( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        if ( snapshotMatcher.matches() )
+        Parts parts = parse( version ).parts;
+        if ( parts.snapshot != null )
         {
-            return snapshotMatcher.group(2);
+            return parts.snapshotWithDelim;
         }
         return EMPTY_STRING;
     }
@@ -269,8 +234,7 @@ public class Version
 
     public static boolean isSnapshot( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        return snapshotMatcher.matches();
+        return parse( version ).parts.snapshot != null;
     }
 
     /**
@@ -280,7 +244,43 @@ public class Version
      */
     public static boolean isValidOSGi(String version)
     {
-        return osgiPattern.matcher( version ).matches();
+        // Equivalent to (\d+)(\.\d+(\.\d+(\.[\w\-_]+)?)?)?
+        final int length = version.length();
+        int i = skipDigits( version, 0 );
+        if ( i == 0 )
+        {
+            return false;
+        }
+        for ( int part = 0; part < 2; part++ )
+        {
+            if ( i == length )
+            {
+                return true;
+            }
+            final int next = skipDigits( version, i + 1 );
+            if ( version.charAt( i ) != '.' || next == i + 1 )
+            {
+                return false;
+            }
+            i = next;
+        }
+        if ( i == length )
+        {
+            return true;
+        }
+        if ( version.charAt( i ) != '.' || i + 1 == length )
+        {
+            return false;
+        }
+        for ( i++; i < length; i++ )
+        {
+            final char c = version.charAt( i );
+            if ( !( isDigit( c ) || ( c >= 'a' && c <= 'z' ) || ( c >= 'A' && c <= 'Z' ) || c == '_' || c == '-' ) )
+            {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -288,12 +288,8 @@ public class Version
      */
     public static String removeBuildNumber( String version )
     {
-        Matcher qualifierMatcher = qualifierPattern.matcher( version );
-        if ( qualifierMatcher.matches() )
-        {
-            return qualifierMatcher.replaceFirst( "$1$5" );
-        }
-        return version;
+        Parts parts = parse( version ).parts;
+        return parts.base + nullToEmpty( parts.snapshotWithDelim );
     }
 
     /**
@@ -302,10 +298,10 @@ public class Version
      */
     public static String removeSnapshot( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        if ( snapshotMatcher.matches() )
+        Parts parts = parse( version ).parts;
+        if ( parts.snapshot != null )
         {
-            return snapshotMatcher.group(1);
+            return version.substring( 0, version.length() - parts.snapshotWithDelim.length() );
         }
         return version;
     }
@@ -324,7 +320,11 @@ public class Version
      */
     static String removeLeadingDelimiter(String versionPart )
     {
-        return versionPart.replaceAll(LEADING_DELIMITER_REGEX, "");
+        if ( versionPart.length() > 0 && isDelimiter( versionPart.charAt( 0 ) ) )
+        {
+            return versionPart.substring( 1 );
+        }
+        return versionPart;
     }
 
     /**
@@ -406,38 +406,39 @@ public class Version
             return newVersion;
         }
 
-        Matcher qualifierMatcher = qualifierPattern.matcher( version );
-        if ( qualifierMatcher.matches() )
+        final Parts parts = parse( version ).parts;
+        final String prefix = parts.base + nullToEmpty( parts.numberDelim ) + nullToEmpty( parts.number );
+        if ( hasLeadingDelimiter( suffixWoSnapshot ) )
         {
-            if ( hasLeadingDelimiter( suffixWoSnapshot ) )
-            {
-                String newVersion = qualifierMatcher.replaceFirst( "$1$3$4" + suffixWoSnapshot + "$5");
-                if ( isSnapshot( suffix ) )
-                {
-                    newVersion = Version.setSnapshot( newVersion, true );
-                }
-                return newVersion;
-            }
-            String delimiter = DEFAULT_QUALIFIER_DELIMITER;
-            if ( isEmpty( getQualifierBase( version ) ) )
-            {
-                delimiter = DEFAULT_DELIMITER;
-            }
-            String newVersion = qualifierMatcher.replaceFirst( "$1$3$4" + delimiter + suffixWoSnapshot + "$5");
+            String newVersion = prefix + suffixWoSnapshot + nullToEmpty( parts.snapshotWithDelim );
             if ( isSnapshot( suffix ) )
             {
                 newVersion = Version.setSnapshot( newVersion, true );
             }
             return newVersion;
         }
-        return version;
+        String delimiter = DEFAULT_QUALIFIER_DELIMITER;
+        if ( isEmpty( getQualifierBase( version ) ) )
+        {
+            delimiter = DEFAULT_DELIMITER;
+        }
+        String newVersion = prefix + delimiter + suffixWoSnapshot + nullToEmpty( parts.snapshotWithDelim );
+        if ( isSnapshot( suffix ) )
+        {
+            newVersion = Version.setSnapshot( newVersion, true );
+        }
+        return newVersion;
     }
 
+    /**
+     * The suffix is deliberately not quoted (so may itself contain regular expression constructs) hence this remains
+     * a regular expression ; the compiled pattern is cached per suffix.
+     */
     private static Matcher createSuffixMatcher( String version, String suffix )
     {
         final String SUFFIX_REGEX = "(.*?)(" + DELIMITER_REGEX + ")?(" + suffix + ")(("
                 + DELIMITER_REGEX + ")?(\\d+))?((" + DELIMITER_REGEX + ")?((?i:" + SNAPSHOT_SUFFIX + ")))?$";
-        return Pattern.compile( SUFFIX_REGEX ).matcher( version );
+        return compile( SUFFIX_REGEX ).matcher( version );
     }
 
     /**
@@ -462,16 +463,12 @@ public class Version
         {
             return version + DEFAULT_DELIMITER + buildNumber;
         }
-        Matcher qualifierMatcher = qualifierPattern.matcher( version );
-        if ( qualifierMatcher.matches() )
+        Parts parts = parse( version ).parts;
+        if ( isEmpty( parts.numberWithDelim ) )
         {
-            if ( isEmpty( qualifierMatcher.group( 2 ) ) )
-            {
-                buildNumber = prependDelimiter( buildNumber, DEFAULT_QUALIFIER_DELIMITER );
-            }
-            return qualifierMatcher.replaceFirst( "$1$3" + buildNumber + "$5" );
+            buildNumber = prependDelimiter( buildNumber, DEFAULT_QUALIFIER_DELIMITER );
         }
-        return version;
+        return parts.base + nullToEmpty( parts.numberDelim ) + buildNumber + nullToEmpty( parts.snapshotWithDelim );
     }
 
     /**
@@ -511,71 +508,257 @@ public class Version
      */
     public static int findHighestMatchingBuildNumber(String version, Set<String> versionSet )
     {
-        int highestBuildNum = 0;
+        return new VersionIndex( versionSet ).findHighestMatchingBuildNumber( version );
+    }
 
-        String osgiVersion = getOsgiVersion( version );
-        String qualifier = getQualifier( osgiVersion );
-        Matcher qualifierMatcher = qualifierPattern.matcher( qualifier );
-        if ( qualifierMatcher.matches() )
+    /**
+     * @return the qualifier of the OSGi form of the version without any build number, snapshot or leading delimiter.
+     */
+    static String getOsgiQualifierBase( String version )
+    {
+        return removeLeadingDelimiter( parse( getQualifier( getOsgiVersion( version ) ) ).parts.base );
+    }
+
+    /**
+     * Get the build number as an integer instead of a string for each numeric comparison
+     *
+     * @return the build number as an integer.
+     */
+    public static int getIntegerBuildNumber( String version )
+    {
+        String buildNumber = getBuildNumber( version );
+        if ( isEmpty( buildNumber ) )
         {
-            qualifier = removeLeadingDelimiter( qualifierMatcher.group( 1 ) );
+            return 0;
         }
+        try
+        {
+            return Integer.parseInt( buildNumber );
+        }
+        catch(NumberFormatException e) {
+            return 0;
+        }
+    }
 
-        // Build version pattern regex, matches something like "<mmm>.<qualifier>.<buildnum>".
-        StringBuilder versionPatternBuf = new StringBuilder();
-        versionPatternBuf.append( '(' )
-                .append( Pattern.quote( getMMM( version ) ) ).append('(').append( DELIMITER_REGEX ).append("0)*") // Match zeros appended to a major only version
-                .append( ")?" )
-                .append( DELIMITER_REGEX );
+    /**
+     * @return the (cached) parsed form of the version.
+     */
+    private static Parsed parse( String version )
+    {
+        Parsed result = parsed.get( version );
+        if ( result == null )
+        {
+            if ( parsed.size() >= MAX_CACHE_SIZE )
+            {
+                parsed.clear();
+            }
+            result = new Parsed( version );
+            parsed.put( version, result );
+        }
+        return result;
+    }
 
-        if ( !isEmpty( qualifier ) )
+    private static Pattern compile( String regex )
+    {
+        Pattern result = patterns.get( regex );
+        if ( result == null )
         {
-            versionPatternBuf.append( Pattern.quote( qualifier ) );
-            versionPatternBuf.append( DELIMITER_REGEX );
+            if ( patterns.size() >= MAX_CACHE_SIZE )
+            {
+                patterns.clear();
+            }
+            result = Pattern.compile( regex );
+            patterns.put( regex, result );
         }
-        versionPatternBuf.append( "(\\d+)" );
-        String candidatePatternStr = versionPatternBuf.toString();
+        return result;
+    }
 
-        logger.debug( "Using pattern: '{}' to find compatible versions from metadata.", candidatePatternStr );
-        final Pattern candidateSuffixPattern = Pattern.compile( candidatePatternStr );
+    private static boolean isDigit( char c )
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDelimiter( char c )
+    {
+        return c == '.' || c == '-' || c == '_';
+    }
 
-        for ( final String compareVersion : versionSet )
+    private static int skipDigits( String s, int i )
+    {
+        while ( i < s.length() && isDigit( s.charAt( i ) ) )
         {
-            final Matcher candidateSuffixMatcher = candidateSuffixPattern.matcher( compareVersion );
-            if ( candidateSuffixMatcher.matches() )
+            i++;
+        }
+        return i;
+    }
+
+    private static String nullToEmpty( String s )
+    {
+        return s == null ? EMPTY_STRING : s;
+    }
+
+    /**
+     * A version string parsed, in a single scan, into &lt;major&gt;.&lt;minor&gt;.&lt;micro&gt; and the qualifier
+     * (if it starts with a digit) together with the {@link Parts} of both the whole string and the qualifier.
+     */
+    private static final class Parsed
+    {
+        /**
+         * Whether the string starts with a digit i.e. has a major version ; otherwise it is only a qualifier.
+         */
+        private final boolean isVersion;
+
+        private final String mmm;
+
+        private final String major;
+
+        private final String minor;
+
+        private final String micro;
+
+        /**
+         * The qualifier, including any leading delimiter.
+         */
+        private final String qualifierWithDelim;
+
+        private final String qualifier;
+
+        private final Parts qualifierParts;
+
+        private final Parts parts;
+
+        private Parsed( String version )
+        {
+            final int length = version.length();
+
+            isVersion = length > 0 && isDigit( version.charAt( 0 ) );
+            if ( isVersion )
             {
-                String buildNumberStr = candidateSuffixMatcher.group( 3 );
-                int compareBuildNum = Integer.parseInt( buildNumberStr );
-                if ( compareBuildNum > highestBuildNum )
+                int i = skipDigits( version, 0 );
+                major = version.substring( 0, i );
+
+                String[] subVersions = new String[2];
+                for ( int part = 0; part < subVersions.length; part++ )
                 {
-                    highestBuildNum = compareBuildNum;
+                    if ( i + 1 < length && isDelimiter( version.charAt( i ) ) && isDigit( version.charAt( i + 1 ) ) )
+                    {
+                        final int next = skipDigits( version, i + 1 );
+                        subVersions[part] = version.substring( i + 1, next );
+                        i = next;
+                    }
+                    else
+                    {
+                        break;
+                    }
                 }
+                minor = subVersions[0];
+                micro = subVersions[1];
+                mmm = version.substring( 0, i );
+                qualifierWithDelim = version.substring( i );
+                qualifier = removeLeadingDelimiter( qualifierWithDelim );
+                qualifierParts = new Parts( qualifier );
+                parts = new Parts( version );
+            }
+            else
+            {
+                major = null;
+                minor = null;
+                micro = null;
+                mmm = null;
+                qualifierWithDelim = null;
+                qualifier = removeLeadingDelimiter( version );
+                parts = new Parts( version );
+                qualifierParts = qualifier.equals( version ) ? parts : new Parts( qualifier );
             }
         }
-        logger.debug ("Found highest matching build number {} from set {} ", highestBuildNum, versionSet);
-
-        return highestBuildNum;
     }
 
     /**
-     * Get the build number as an integer instead of a string for each numeric comparison
-     *
-     * @return the build number as an integer.
+     * A string split into &lt;base&gt;&lt;delimiter&gt;&lt;number&gt;&lt;delimiter&gt;&lt;snapshot&gt; where the
+     * trailing number and snapshot (and their delimiters) are optional and the base is as short as possible.
+     * Absent parts are null.
      */
-    public static int getIntegerBuildNumber( String version )
+    private static final class Parts
     {
-        String buildNumber = getBuildNumber( version );
-        if ( isEmpty( buildNumber ) )
+        private final String base;
+
+        private final String numberWithDelim;
+
+        private final String numberDelim;
+
+        private final String number;
+
+        private final String snapshotWithDelim;
+
+        private final String snapshot;
+
+        private Parts( String value )
         {
-            return 0;
+            int end = value.length();
+
+            final int snapshotStart = end - SNAPSHOT_SUFFIX.length();
+            if ( snapshotStart >= 0 && isSnapshotSuffix( value, snapshotStart ) )
+            {
+                end = snapshotStart > 0 && isDelimiter( value.charAt( snapshotStart - 1 ) ) ?
+                                snapshotStart - 1 :
+                                snapshotStart;
+                snapshot = value.substring( snapshotStart );
+                snapshotWithDelim = value.substring( end );
+            }
+            else
+            {
+                snapshot = null;
+                snapshotWithDelim = null;
+            }
+
+            int numberStart = end;
+            while ( numberStart > 0 && isDigit( value.charAt( numberStart - 1 ) ) )
+            {
+                numberStart--;
+            }
+            if ( numberStart < end )
+            {
+                number = value.substring( numberStart, end );
+                if ( numberStart > 0 && isDelimiter( value.charAt( numberStart - 1 ) ) )
+                {
+                    numberStart--;
+                    numberDelim = value.substring( numberStart, numberStart + 1 );
+                }
+                else
+                {
+                    numberDelim = null;
+                }
+                numberWithDelim = value.substring( numberStart, end );
+                end = numberStart;
+            }
+            else
+            {
+                number = null;
+                numberDelim = null;
+                numberWithDelim = null;
+            }
+
+            base = value.substring( 0, end );
         }
-        try
+
+        /**
+         * ASCII only case insensitive comparison, as (?i:SNAPSHOT).
+         */
+        private static boolean isSnapshotSuffix( String value, int start )
         {
-            return Integer.parseInt( buildNumber );
-        }
-        catch(NumberFormatException e) {
-            return 0;
+            for ( int i = 0; i < SNAPSHOT_SUFFIX.length(); i++ )
+            {
+                char c = value.charAt( start + i );
+                if ( c >= 'a' && c <= 'z' )
+                {
+                    c = (char) ( c - ( 'a' - 'A' ) );
+                }
+                if ( c != SNAPSHOT_SUFFIX.charAt( i ) )
+                {
+                    return false;
+                }
+            }
+            return true;
         }
     }
-
 }
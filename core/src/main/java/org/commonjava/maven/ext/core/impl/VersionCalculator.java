@@ -38,7 +38,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import static org.commonjava.maven.ext.core.impl.Version.findHighestMatchingBuildNumber;
 import static org.commonjava.maven.ext.core.util.IdUtils.gav;
 
 /**
@@ -86,6 +85,7 @@ public class VersionCalculator
         final VersioningState state = session.getState( VersioningState.class );
         final Map<ProjectVersionRef, String> versionsByGAV = new HashMap<>();
         final Set<String> vesionsWithBuildNums = new HashSet<>();
+        final VersionIndex buildNumIndex = new VersionIndex();
 
         for ( final Project project : projects )
         {
@@ -99,9 +99,9 @@ public class VersionCalculator
 
             versionsByGAV.put( project.getKey(), modifiedVersion );
 
-            if ( Version.hasBuildNumber( modifiedVersion ) )
+            if ( Version.hasBuildNumber( modifiedVersion ) && vesionsWithBuildNums.add( modifiedVersion ) )
             {
-                vesionsWithBuildNums.add( modifiedVersion );
+                buildNumIndex.add( modifiedVersion );
             }
         }
 
@@ -117,7 +117,7 @@ public class VersionCalculator
             // This also fixes the problem where there is a single version and leading zeros.
             if (vesionsWithBuildNums.size() > 1)
             {
-                int buildNumber = findHighestMatchingBuildNumber( modifiedVersion, vesionsWithBuildNums );
+                int buildNumber = buildNumIndex.findHighestMatchingBuildNumber( modifiedVersion );
 
                 // If the buildNumber is greater than zero, it means we found a match and have to
                 // set the build number to avoid version conflicts.
@@ -129,7 +129,10 @@ public class VersionCalculator
                 }
             }
 
-            vesionsWithBuildNums.add( modifiedVersion );
+            if ( vesionsWithBuildNums.add( modifiedVersion ) )
+            {
+                buildNumIndex.add( modifiedVersion );
+            }
             logger.debug( gav( project ) + " has updated version: {}. Marking for rewrite.", modifiedVersion );
 
             if ( !originalVersion.equals( modifiedVersion ) )
@@ -183,10 +186,10 @@ public class VersionCalculator
         }
         else if ( incrementalSuffix != null )
         {
-            final Set<String> versionCandidates = this.getVersionCandidates(state, groupId, artifactId);
+            final VersionIndex versionCandidates = this.getVersionCandidates(state, groupId, artifactId);
 
             newVersion = Version.appendQualifierSuffix( newVersion, incrementalSuffix );
-            int highestRemoteBuildNumPlusOne = findHighestMatchingBuildNumber( newVersion, versionCandidates ) + 1;
+            int highestRemoteBuildNumPlusOne = versionCandidates.findHighestMatchingBuildNumber( newVersion ) + 1;
 
             if ( highestRemoteBuildNumPlusOne > Version.getIntegerBuildNumber( newVersion ) )
             {
@@ -206,11 +209,13 @@ public class VersionCalculator
 
     /**
      * Find matching version strings in the remote repo.
+     *
+     * @return an index over the versions of the groupId:artifactId.
      */
-    private Set<String> getVersionCandidates(VersioningState state, String groupId, String artifactId)
+    private VersionIndex getVersionCandidates(VersioningState state, String groupId, String artifactId)
             throws ManipulationException
     {
-        final Set<String> versionCandidates = new HashSet<>();
+        final VersionIndex versionCandidates = new VersionIndex();
 
         Map<ProjectRef, Set<String>> rm = state.getRESTMetadata();
         if ( rm != null)
@@ -221,14 +226,20 @@ public class VersionCalculator
                 // Use preloaded metadata from remote repository, loaded via a REST Call.
                 if (rm.get( new SimpleProjectRef( groupId, artifactId ) ) != null)
                 {
-                    versionCandidates.addAll( rm.get( new SimpleProjectRef( groupId, artifactId ) ) );
+                    for ( final String version : rm.get( new SimpleProjectRef( groupId, artifactId ) ) )
+                    {
+                        versionCandidates.add( version );
+                    }
                 }
             }
         }
         else
         {
             // Load metadata from local repository
-            versionCandidates.addAll( getMetadataVersions( groupId, artifactId ) );
+            for ( final String version : getMetadataVersions( groupId, artifactId ) )
+            {
+                versionCandidates.add( version );
+            }
         }
         return versionCandidates;
 
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index over a collection of versions (e.g. those published for a single groupId:artifactId) used to find the highest
+ * build number matching a version ; see {@link Version#findHighestMatchingBuildNumber(String, java.util.Set)}.
+ * <p>
+ * A version can only match if it ends with a delimiter followed by a (build) number, so each version is split once
+ * into the part before that delimiter and the number. As only the highest build number is ever required the index
+ * holds, for each distinct part, the highest number seen. Hence however many rebuilds have been published a lookup
+ * only examines the (sorted) parts that start with the major.minor.micro of the version being matched.
+ * <p>
+ * This class is not thread safe.
+ */
+final class VersionIndex
+{
+    private static final Logger logger = LoggerFactory.getLogger( VersionIndex.class );
+
+    private static final char[] DELIMITERS = { '.', '-', '_' };
+
+    /**
+     * Version without its trailing delimiter and build number : highest build number.
+     */
+    private final TreeMap<String, Integer> highestBuildNumbers = new TreeMap<>();
+
+    VersionIndex()
+    {
+    }
+
+    VersionIndex( Collection<String> versions )
+    {
+        for ( String version : versions )
+        {
+            add( version );
+        }
+    }
+
+    /**
+     * @param version the version to add ; it is ignored if it does not end in a delimiter and build number.
+     */
+    void add( String version )
+    {
+        int start = version.length();
+        while ( start > 0 && isDigit( version.charAt( start - 1 ) ) )
+        {
+            start--;
+        }
+        if ( start == version.length() || start == 0 || !isDelimiter( version.charAt( start - 1 ) ) )
+        {
+            return;
+        }
+
+        final int buildNumber;
+        try
+        {
+            buildNumber = Integer.parseInt( version.substring( start ) );
+        }
+        catch ( NumberFormatException e )
+        {
+            logger.debug( "Ignoring version {} as its build number is out of range", version );
+            return;
+        }
+
+        final String prefix = version.substring( 0, start - 1 );
+        final Integer existing = highestBuildNumbers.get( prefix );
+        if ( existing == null || existing < buildNumber )
+        {
+            highestBuildNumbers.put( prefix, buildNumber );
+        }
+    }
+
+    int size()
+    {
+        return highestBuildNumbers.size();
+    }
+
+    /**
+     * Matches versions of the form <code>[&lt;mmm&gt;[&lt;delimiter&gt;0]*]&lt;delimiter&gt;[&lt;qualifier&gt;&lt;delimiter&gt;]&lt;buildnum&gt;</code>
+     * where the qualifier is that of the OSGi form of the version without any build number or snapshot.
+     *
+     * @param version the version to match.
+     * @return the highest build number of the matching versions, or 0 if there are none.
+     */
+    int findHighestMatchingBuildNumber( String version )
+    {
+        final String mmm = Version.getMMM( version );
+        final String qualifier = Version.getOsgiQualifierBase( version );
+        final String suffix = Version.isEmpty( qualifier ) ? "" : qualifier;
+
+        int highestBuildNum = 0;
+
+        if ( mmm.isEmpty() )
+        {
+            for ( Map.Entry<String, Integer> entry : highestBuildNumbers.entrySet() )
+            {
+                highestBuildNum = highest( highestBuildNum, entry, mmm, suffix );
+            }
+        }
+        else
+        {
+            // A match either starts with the mmm...
+            for ( Map.Entry<String, Integer> entry : highestBuildNumbers.tailMap( mmm, true ).entrySet() )
+            {
+                if ( !entry.getKey().startsWith( mmm ) )
+                {
+                    break;
+                }
+                highestBuildNum = highest( highestBuildNum, entry, mmm, suffix );
+            }
+            // ... or omits it altogether.
+            if ( suffix.isEmpty() )
+            {
+                highestBuildNum = highest( highestBuildNum, "", mmm, suffix );
+            }
+            else
+            {
+                for ( char delimiter : DELIMITERS )
+                {
+                    highestBuildNum = highest( highestBuildNum, delimiter + suffix, mmm, suffix );
+                }
+            }
+        }
+        logger.debug( "Found highest matching build number {} from {} candidates", highestBuildNum,
+                      highestBuildNumbers.size() );
+
+        return highestBuildNum;
+    }
+
+    private int highest( int current, String prefix, String mmm, String suffix )
+    {
+        final Integer buildNumber = highestBuildNumbers.get( prefix );
+        if ( buildNumber != null && buildNumber > current && matches( prefix, mmm, suffix ) )
+        {
+            return buildNumber;
+        }
+        return current;
+    }
+
+    private static int highest( int current, Map.Entry<String, Integer> entry, String mmm, String suffix )
+    {
+        if ( entry.getValue() > current && matches( entry.getKey(), mmm, suffix ) )
+        {
+            return entry.getValue();
+        }
+        return current;
+    }
+
+    /**
+     * @return whether the prefix (the version without its trailing delimiter and build number) matches
+     * <code>[&lt;mmm&gt;[&lt;delimiter&gt;0]*]</code> optionally followed by <code>&lt;delimiter&gt;&lt;suffix&gt;</code>
+     * if the suffix is not empty.
+     */
+    private static boolean matches( String prefix, String mmm, String suffix )
+    {
+        int end = prefix.length();
+        if ( !suffix.isEmpty() )
+        {
+            end -= suffix.length() + 1;
+            if ( end < 0 || !prefix.endsWith( suffix ) || !isDelimiter( prefix.charAt( end ) ) )
+            {
+                return false;
+            }
+        }
+        if ( end == 0 )
+        {
+            return true;
+        }
+        if ( end < mmm.length() || !prefix.startsWith( mmm ) || ( end - mmm.length() ) % 2 != 0 )
+        {
+            return false;
+        }
+        for ( int i = mmm.length(); i < end; i += 2 )
+        {
+            if ( !isDelimiter( prefix.charAt( i ) ) || prefix.charAt( i + 1 ) != '0' )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit( char c )
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDelimiter( char c )
+    {
+        return c == '.' || c == '-' || c == '_';
+    }
+}
@@ -15,8 +15,14 @@
  */
 package org.commonjava.maven.ext.core.state;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.commonjava.maven.ext.common.model.GAV;
+import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.core.impl.PluginManipulator;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -68,6 +74,13 @@ public class CommonState
 
     private final boolean ignoreSuffix;
 
+    /**
+     * Projects reported as changed by a manipulator whose POM content was unaltered and therefore not rewritten.
+     */
+    @JsonProperty
+    @JsonInclude( JsonInclude.Include.NON_EMPTY )
+    private final List<GAV> untouched = new ArrayList<>();
+
     public CommonState( final Properties userProps )
     {
         overrideTransitive = Boolean.valueOf( userProps.getProperty( TRANSITIVE_OVERRIDE_PROPERTY, "false" ) );
@@ -116,4 +129,18 @@ public class CommonState
     {
         return failOnStrictViolation;
     }
+
+    public void addUntouched( final Project project )
+    {
+        final GAV gav = new GAV();
+        gav.setGroupId( project.getGroupId() );
+        gav.setArtifactId( project.getArtifactId() );
+        gav.setVersion( project.getVersion() );
+        untouched.add( gav );
+    }
+
+    public List<GAV> getUntouched()
+    {
+        return untouched;
+    }
 }
@@ -18,6 +18,7 @@ package org.commonjava.maven.ext.core.state;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.util.UserProperties;
 import org.commonjava.maven.ext.core.impl.DependencyManipulator;
 import org.commonjava.maven.ext.core.util.IdUtils;
 import org.commonjava.maven.ext.core.util.PropertiesUtils;
@@ -83,6 +84,14 @@ public class DependencyState
      */
     private static final String DEPENDENCY_MANAGEMENT_POM_PROPERTY = "dependencyManagement";
 
+    /**
+     * The number of projects to align concurrently. Defaults to one i.e. projects are aligned sequentially.
+     * <pre>
+     * <code>-DdependencyParallelism=4</code>
+     * </pre>
+     */
+    static final String DEPENDENCY_PARALLELISM = "dependencyParallelism";
+
     private static final Logger logger = LoggerFactory.getLogger( DependencyState.class );
 
     private final boolean overrideDependencies;
@@ -95,6 +104,8 @@ public class DependencyState
 
     private DependencyPrecedence precedence;
 
+    private final int parallelism;
+
     public DependencyState( final Properties userProps ) throws ManipulationException
     {
         if ( userProps.containsKey( "overrideDependencies" ) )
@@ -104,6 +115,7 @@ public class DependencyState
         overrideDependencies = Boolean.valueOf( userProps.getProperty( "overrideDependencies", "true" ) );
         remoteBOMdepMgmt = IdUtils.parseGAVs( userProps.getProperty( DEPENDENCY_MANAGEMENT_POM_PROPERTY ) );
         dependencyExclusions = getPropertiesByPrefix( userProps, DEPENDENCY_EXCLUSION_PREFIX );
+        parallelism = UserProperties.getInt( userProps, DEPENDENCY_PARALLELISM, 1 );
 
         Map<String, String> oP = PropertiesUtils.getPropertiesByPrefix( userProps, DEPENDENCY_OVERRIDE_PREFIX );
         for ( String s : oP.keySet() )
@@ -170,6 +182,14 @@ public class DependencyState
         return overrideDependencies;
     }
 
+    /**
+     * @return the number of projects to align concurrently ; one or less aligns them sequentially.
+     */
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
     public DependencyPrecedence getPrecedence()
     {
         return precedence;
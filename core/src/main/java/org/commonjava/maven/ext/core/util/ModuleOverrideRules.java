@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The module specific dependency overrides (e.g. <code>dependencyOverride.group:artifact@groupId:artifactId=value</code>)
+ * parsed once and indexed by the module they apply to, so that the overrides for each module may be found without
+ * parsing every key again.
+ * <p>
+ * There are two kinds of rules:
+ * <ol>
+ *   <li>Module-specific (<code>@groupId:artifactId</code> or <code>@groupId:*</code>), which take precedence. The
+ *   groupId may be a prefix (<code>@org.foo.*:*</code>), matched as {@link WildcardMap} matches it.</li>
+ *   <li>Wildcards (<code>@*</code>), which are applied to every module IF there is no corresponding module-specific
+ *   override.</li>
+ * </ol>
+ * A rule with a value forces the artifact to that version ; a rule with an empty value prevents the artifact being
+ * overridden. In both cases the groupId of the artifact may also be such a prefix.
+ */
+public final class ModuleOverrideRules
+{
+    private static final Logger logger = LoggerFactory.getLogger( ModuleOverrideRules.class );
+
+    private final Map<String, List<Rule>> byModule = new HashMap<>();
+
+    private final Map<String, List<Rule>> byGroup = new HashMap<>();
+
+    private final Map<ProjectRef, List<Rule>> byGroupPrefix = new HashMap<>();
+
+    private final List<Rule> wildcards = new ArrayList<>();
+
+    /**
+     * @param overrides the dependency overrides ; those without a '@' are ignored.
+     * @throws ManipulationException if a key is invalid.
+     */
+    public ModuleOverrideRules( final Map<String, String> overrides ) throws ManipulationException
+    {
+        int index = 0;
+
+        // Rules are kept in the order they were previously evaluated in, which matters when several rules apply to
+        // the same artifact.
+        for ( final String key : new HashSet<>( overrides.keySet() ) )
+        {
+            if ( !key.contains( "@" ) )
+            {
+                continue;
+            }
+
+            final String value = overrides.get( key );
+
+            if ( key.endsWith( "@*" ) )
+            {
+                wildcards.add( new Rule( index++, key.substring( 0, key.length() - 2 ), value ) );
+                continue;
+            }
+
+            final String[] artifactAndModule = key.split( "@" );
+            if ( artifactAndModule.length != 2 )
+            {
+                throw new ManipulationException( "Invalid format for exclusion key " + key );
+            }
+            final ProjectRef moduleGA = SimpleProjectRef.parse( artifactAndModule[1] );
+            final Rule rule = new Rule( index++, artifactAndModule[0], value );
+
+            if ( WildcardMap.isPrefix( moduleGA.getGroupId() ) )
+            {
+                add( byGroupPrefix, moduleGA, rule );
+            }
+            else if ( moduleGA.getArtifactId().equals( WildcardMap.WILDCARD ) )
+            {
+                add( byGroup, moduleGA.getGroupId(), rule );
+            }
+            else
+            {
+                add( byModule, moduleGA.toString(), rule );
+            }
+        }
+    }
+
+    /**
+     * Apply the rules for a module.
+     *
+     * @param projectGA the current project group : artifact
+     * @param overrides the overrides applying to all modules
+     * @param explicitOverrides the map to which the explicit (forced) overrides for the module are added
+     * @return the overrides which apply to the given module
+     */
+    public OverrideTable apply( final String projectGA, final OverrideTable overrides,
+                                final WildcardMap<String> explicitOverrides )
+    {
+        OverrideTable result = overrides;
+
+        for ( final Rule rule : moduleRules( projectGA ) )
+        {
+            if ( rule.value != null && !rule.value.isEmpty() )
+            {
+                explicitOverrides.put( rule.getArtifact(), rule.value );
+                logger.debug( "Overriding module dependency for {} with {} : {}", projectGA, rule.artifactGA,
+                              rule.value );
+            }
+            else
+            {
+                // Override prevention...
+                result = result.withoutGA( rule.getArtifact() );
+                logger.debug( "For module {}, ignoring dependency override for {} ", projectGA, rule.artifactGA );
+            }
+        }
+
+        for ( final Rule rule : wildcards )
+        {
+            if ( explicitOverrides.containsKey( rule.getArtifact() ) )
+            {
+                logger.debug( "For artifact override: {}, current overrides already contain a module-specific version. Skip.",
+                              rule.artifactGA );
+                continue;
+            }
+
+            // I think this is only used for e.g. dependencyExclusion.groupId:artifactId@*=<explicitVersion>
+            if ( rule.value != null && !rule.value.isEmpty() )
+            {
+                logger.debug( "Overriding module dependency for {} with {} : {}", projectGA, rule.artifactGA,
+                              rule.value );
+                explicitOverrides.put( rule.getArtifact(), rule.value );
+            }
+            else
+            {
+                // If we have a wildcard artifact we want to replace any prior explicit overrides
+                // with this one i.e. this takes precedence.
+                result = result.withoutGA( rule.getArtifact() );
+                logger.debug( "Removing artifactGA {} from overrides", rule.artifactGA );
+            }
+        }
+
+        return result;
+    }
+
+    private List<Rule> moduleRules( final String projectGA )
+    {
+        final List<Rule> module = byModule.get( projectGA );
+        final int separator = projectGA.indexOf( ':' );
+        final List<Rule> group = separator < 0 ? null : byGroup.get( projectGA.substring( 0, separator ) );
+
+        List<Rule> result = merge( module, group );
+
+        if ( separator >= 0 )
+        {
+            final String groupId = projectGA.substring( 0, separator );
+            final String artifactId = projectGA.substring( separator + 1 );
+
+            for ( final Map.Entry<ProjectRef, List<Rule>> entry : byGroupPrefix.entrySet() )
+            {
+                final ProjectRef moduleGA = entry.getKey();
+                if ( WildcardMap.matchesGroup( moduleGA.getGroupId(), groupId ) &&
+                                ( moduleGA.getArtifactId().equals( WildcardMap.WILDCARD ) ||
+                                                moduleGA.getArtifactId().equals( artifactId ) ) )
+                {
+                    result = merge( result, entry.getValue() );
+                }
+            }
+        }
+        return result == null ? Collections.<Rule>emptyList() : result;
+    }
+
+    /**
+     * @return the rules of both lists in evaluation order ; either list may be null, and null if both are.
+     */
+    private static List<Rule> merge( final List<Rule> first, final List<Rule> second )
+    {
+        if ( second == null )
+        {
+            return first;
+        }
+        if ( first == null )
+        {
+            return second;
+        }
+
+        final List<Rule> result = new ArrayList<>( first.size() + second.size() );
+        int f = 0;
+        int s = 0;
+        while ( f < first.size() || s < second.size() )
+        {
+            if ( s == second.size() || ( f < first.size() && first.get( f ).index < second.get( s ).index ) )
+            {
+                result.add( first.get( f++ ) );
+            }
+            else
+            {
+                result.add( second.get( s++ ) );
+            }
+        }
+        return result;
+    }
+
+    private static <K> void add( final Map<K, List<Rule>> index, final K key, final Rule rule )
+    {
+        List<Rule> rules = index.get( key );
+        if ( rules == null )
+        {
+            rules = new ArrayList<>( 1 );
+            index.put( key, rules );
+        }
+        rules.add( rule );
+    }
+
+    private static final class Rule
+    {
+        private final int index;
+
+        private final String artifactGA;
+
+        private final String value;
+
+        private volatile ProjectRef artifact;
+
+        private Rule( final int index, final String artifactGA, final String value )
+        {
+            this.index = index;
+            this.artifactGA = artifactGA;
+            this.value = value;
+        }
+
+        // Only parsed once the rule is used, as an invalid artifact was previously only reported for matching modules.
+        private ProjectRef getArtifact()
+        {
+            if ( artifact == null )
+            {
+                artifact = SimpleProjectRef.parse( artifactGA );
+            }
+            return artifact;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable table of ArtifactRef : newVersion overrides, indexed by groupId:artifactId. The same GA may be present
+ * with several versions (which is useful for strict alignment) ; {@link #get(ProjectRef)} returns them in the order
+ * of the table.
+ * <p>
+ * Restricting the table (see {@link #without(Collection)} and {@link #withoutGA(ProjectRef)}) returns the same
+ * instance when nothing is removed, so the common case of a module without specific overrides shares the table
+ * rather than copying it.
+ */
+public final class OverrideTable
+{
+    private static final OverrideTable EMPTY = new OverrideTable( Collections.<ArtifactRef, String>emptyMap() );
+
+    private final Map<ArtifactRef, String> overrides;
+
+    private final Map<ProjectRef, List<ArtifactRef>> byGA;
+
+    public OverrideTable( final Map<ArtifactRef, String> overrides )
+    {
+        this.overrides = Collections.unmodifiableMap( new LinkedHashMap<>( overrides ) );
+        this.byGA = new HashMap<>( overrides.size() * 2 );
+
+        for ( final ArtifactRef ref : this.overrides.keySet() )
+        {
+            final ProjectRef ga = ga( ref );
+            List<ArtifactRef> bucket = byGA.get( ga );
+            if ( bucket == null )
+            {
+                bucket = new ArrayList<>( 1 );
+                byGA.put( ga, bucket );
+            }
+            bucket.add( ref );
+        }
+    }
+
+    public static OverrideTable empty()
+    {
+        return EMPTY;
+    }
+
+    /**
+     * Merges two sets of overrides. Entries of the lower precedence overrides whose GA is present in the higher
+     * precedence ones are dropped ; the remainder are followed by all the higher precedence entries.
+     *
+     * @param lower the overrides with lower precedence.
+     * @param higher the overrides with higher precedence.
+     * @return the merged table.
+     */
+    public static OverrideTable merge( final Map<ArtifactRef, String> lower, final Map<ArtifactRef, String> higher )
+    {
+        final Set<ProjectRef> higherGAs = new HashSet<>( higher.size() * 2 );
+        for ( final ArtifactRef ref : higher.keySet() )
+        {
+            higherGAs.add( ga( ref ) );
+        }
+
+        final Map<ArtifactRef, String> merged = new LinkedHashMap<>( lower.size() + higher.size() );
+        for ( final Map.Entry<ArtifactRef, String> entry : lower.entrySet() )
+        {
+            if ( !higherGAs.contains( ga( entry.getKey() ) ) )
+            {
+                merged.put( entry.getKey(), entry.getValue() );
+            }
+        }
+        merged.putAll( higher );
+
+        return new OverrideTable( merged );
+    }
+
+    /**
+     * @return an unmodifiable view of the overrides, in the order of the table.
+     */
+    public Map<ArtifactRef, String> asMap()
+    {
+        return overrides;
+    }
+
+    public boolean isEmpty()
+    {
+        return overrides.isEmpty();
+    }
+
+    public int size()
+    {
+        return overrides.size();
+    }
+
+    /**
+     * @param ref the override to look up.
+     * @return the version of the override or null.
+     */
+    public String get( final ArtifactRef ref )
+    {
+        return overrides.get( ref );
+    }
+
+    /**
+     * @param ga the groupId and artifactId to look up ; any version information is ignored.
+     * @return the overrides with that groupId and artifactId in the order of the table ; never null.
+     */
+    public List<ArtifactRef> get( final ProjectRef ga )
+    {
+        final List<ArtifactRef> result = byGA.get( ga( ga ) );
+        return result == null ? Collections.<ArtifactRef>emptyList() : Collections.unmodifiableList( result );
+    }
+
+    /**
+     * @param removed the overrides to remove.
+     * @return a table without the supplied overrides, or this table if it contains none of them.
+     */
+    public OverrideTable without( final Collection<? extends ArtifactRef> removed )
+    {
+        boolean found = false;
+        for ( final ArtifactRef ref : removed )
+        {
+            if ( overrides.containsKey( ref ) )
+            {
+                found = true;
+                break;
+            }
+        }
+        if ( !found )
+        {
+            return this;
+        }
+
+        final Map<ArtifactRef, String> result = new LinkedHashMap<>( overrides );
+        result.keySet().removeAll( removed );
+        return new OverrideTable( result );
+    }
+
+    /**
+     * Removes all overrides matching the supplied groupId and artifactId, either of which may be a wildcard
+     * ({@link WildcardMap#WILDCARD}). The groupId may also be a prefix of the form <code>org.foo.*</code>, matched as
+     * {@link WildcardMap} matches it.
+     *
+     * @param ref the groupId and artifactId to remove.
+     * @return a table without the matching overrides, or this table if there are none.
+     */
+    public OverrideTable withoutGA( final ProjectRef ref )
+    {
+        final boolean anyGroup = WildcardMap.WILDCARD.equals( ref.getGroupId() );
+        final boolean anyArtifact = WildcardMap.WILDCARD.equals( ref.getArtifactId() );
+
+        if ( !anyGroup && !anyArtifact && !WildcardMap.isPrefix( ref.getGroupId() ) )
+        {
+            return without( get( ref ) );
+        }
+        if ( anyGroup && anyArtifact )
+        {
+            return overrides.isEmpty() ? this : EMPTY;
+        }
+
+        final List<ArtifactRef> removed = new ArrayList<>();
+        for ( final ArtifactRef a : overrides.keySet() )
+        {
+            if ( ( anyGroup || WildcardMap.matchesGroup( ref.getGroupId(), a.getGroupId() ) ) &&
+                 ( anyArtifact || a.getArtifactId().equals( ref.getArtifactId() ) ) )
+            {
+                removed.add( a );
+            }
+        }
+        return without( removed );
+    }
+
+    @Override
+    public String toString()
+    {
+        return overrides.toString();
+    }
+
+    // Normalise the keys as ProjectRef implementations differ in their notion of equality.
+    private static ProjectRef ga( final ProjectRef ref )
+    {
+        return new SimpleProjectRef( ref.getGroupId(), ref.getArtifactId() );
+    }
+}
@@ -16,10 +16,9 @@
 package org.commonjava.maven.ext.core.util;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.maven.model.Profile;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
-import org.commonjava.maven.ext.common.util.ProfileUtils;
+import org.commonjava.maven.ext.common.util.PropertyIndex;
 import org.commonjava.maven.ext.common.util.PropertyResolver;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.impl.Version;
@@ -91,7 +90,7 @@ public final class PropertiesUtils
     public static PropertyUpdate updateProperties( ManipulationSession session, Project project, boolean ignoreStrict,
                                                    String key, String newValue ) throws ManipulationException
     {
-        final String resolvedValue = PropertyResolver.resolveProperties( session, project.getInheritedList(), "${" + key + '}' );
+        final String resolvedValue = PropertyResolver.resolveInheritedProperties( session, project, "${" + key + '}' );
 
         logger.debug( "Fully resolvedValue is {} for {} ", resolvedValue, key );
 
@@ -101,24 +100,15 @@ public final class PropertiesUtils
             return PropertyUpdate.IGNORE;
         }
 
+        final PropertyIndex index = session.getPropertyIndex();
         for ( final Project p : project.getReverseInheritedList() )
         {
-            if ( p.getModel().getProperties().containsKey( key ) )
+            // The properties of the model or, failing that, those of the first of its profiles defining the key.
+            final Properties definition = index.getDefinition( p, key );
+            if ( definition != null )
             {
-                logger.trace( "Searching properties of {} ", p );
-                return internalUpdateProperty( session, p, ignoreStrict, key, newValue, resolvedValue, p.getModel().getProperties() );
-            }
-            else
-            {
-                for ( Profile pr : ProfileUtils.getProfiles( session, p.getModel() ) )
-                {
-                    logger.trace( "Searching properties of profile {} within project {} ", pr.getId(), p );
-                    // Lets check the profiles for property updates...
-                    if ( pr.getProperties().containsKey( key ) )
-                    {
-                        return internalUpdateProperty( session, p, ignoreStrict, key, newValue, resolvedValue, pr.getProperties() );
-                    }
-                }
+                logger.trace( "Found property {} within project {} ", key, p );
+                return internalUpdateProperty( session, p, ignoreStrict, key, newValue, resolvedValue, definition );
             }
         }
 
@@ -210,6 +200,7 @@ public final class PropertiesUtils
             }
 
             props.setProperty( key, newValue );
+            PropertyResolver.invalidateValues( session, p );
         }
         return found;
     }
@@ -258,18 +249,32 @@ public final class PropertiesUtils
         final CommonState cState = session.getState( CommonState.class );
         final VersioningState vState = session.getState( VersioningState.class );
         final boolean ignoreSuffix = cState.getStrictIgnoreSuffix();
+        final boolean preserveSnapshot = vState.preserveSnapshot();
+        final String suffix = getSuffix( session );
+        final StrictValueCache cache = session.getStrictValueCache();
 
+        Boolean result = cache.get( oldValue, newValue, suffix, ignoreSuffix, preserveSnapshot );
+        if ( result == null )
+        {
+            result = checkStrictValue( cache, oldValue, newValue, suffix, ignoreSuffix, preserveSnapshot );
+            cache.put( oldValue, newValue, suffix, ignoreSuffix, preserveSnapshot, result );
+        }
+        return result;
+    }
+
+    private static boolean checkStrictValue( StrictValueCache cache, String oldValue, String newValue, String suffix,
+                                             boolean ignoreSuffix, boolean preserveSnapshot )
+    {
         // New value might be e.g. 3.1-rebuild-1 or 3.1.0.rebuild-1 (i.e. it *might* be OSGi compliant).
         String newVersion = newValue;
-        String suffix = getSuffix( session );
 
         String v = oldValue ;
-        if ( !vState.preserveSnapshot() )
+        if ( !preserveSnapshot )
         {
             v = Version.removeSnapshot( v );
         }
 
-        String osgiVersion = Version.getOsgiVersion( v );
+        String osgiVersion = cache.getOsgiVersion( v );
 
         if ( isNotEmpty ( suffix ))
         {
@@ -290,7 +295,7 @@ public final class PropertiesUtils
                     String oldValueCache = oldValue;
                     oldValue = oldValue.substring( 0, oldValue.indexOf( suffix ) - 1 );
                     v = oldValue;
-                    osgiVersion = Version.getOsgiVersion( v );
+                    osgiVersion = cache.getOsgiVersion( v );
                     logger.debug( "Updating version to {} and for oldValue {} with newValue {} ", v, oldValueCache,
                                   newValue );
 
@@ -306,7 +311,7 @@ public final class PropertiesUtils
             if ( !Version.hasQualifier( v ) )
             {
                 v = Version.appendQualifierSuffix( v, suffix );
-                osgiVersion = Version.getOsgiVersion( v );
+                osgiVersion = cache.getOsgiVersion( v );
                 osgiVersion = osgiVersion.substring( 0, osgiVersion.indexOf( suffix ) - 1 );
             }
             if ( newValue.contains( suffix ) )
@@ -319,12 +324,7 @@ public final class PropertiesUtils
 
         // We compare both an OSGi'ied oldVersion and the non-OSGi version against the possible new version (which has
         // had its suffix stripped) in order to check whether its a valid change.
-        boolean result = false;
-        if ( oldValue.equals( newVersion ) || osgiVersion.equals( newVersion ) )
-        {
-            result = true;
-        }
-        return result;
+        return oldValue.equals( newVersion ) || osgiVersion.equals( newVersion );
     }
 
     /**
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.ext.core.impl.Version;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Session scoped memo of the strict version-alignment checks performed by
+ * {@link PropertiesUtils#checkStrictValue}. The same original / new version pairs are checked repeatedly across
+ * modules and profiles while the check itself runs several regular expression based {@link Version} operations.
+ * <p>
+ * Results are keyed by everything that they depend upon (the versions, the suffix and the snapshot and
+ * ignore-suffix flags) so a change of configuration does not return stale results. The OSGi form of each version is
+ * also retained, as the same original versions are compared against many new versions. This class is thread safe.
+ */
+public final class StrictValueCache
+{
+    private static final int MAX_ENTRIES = 16384;
+
+    private final ConcurrentMap<Key, Boolean> results = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, String> osgiVersions = new ConcurrentHashMap<>();
+
+    /**
+     * @param oldValue the original version
+     * @param newValue the new version
+     * @param suffix the configured rebuild suffix ; may be null
+     * @param ignoreSuffix whether strictIgnoreSuffix is configured
+     * @param preserveSnapshot whether snapshots are preserved
+     * @return the previously recorded result of the check or null if it has not been performed.
+     */
+    Boolean get( String oldValue, String newValue, String suffix, boolean ignoreSuffix, boolean preserveSnapshot )
+    {
+        return results.get( new Key( oldValue, newValue, suffix, ignoreSuffix, preserveSnapshot ) );
+    }
+
+    void put( String oldValue, String newValue, String suffix, boolean ignoreSuffix, boolean preserveSnapshot,
+              boolean result )
+    {
+        if ( results.size() >= MAX_ENTRIES )
+        {
+            results.clear();
+        }
+        results.put( new Key( oldValue, newValue, suffix, ignoreSuffix, preserveSnapshot ), result );
+    }
+
+    /**
+     * @param version the version to convert
+     * @return the OSGi form of the version, as {@link Version#getOsgiVersion(String)}.
+     */
+    String getOsgiVersion( String version )
+    {
+        String result = osgiVersions.get( version );
+        if ( result == null )
+        {
+            if ( osgiVersions.size() >= MAX_ENTRIES )
+            {
+                osgiVersions.clear();
+            }
+            result = Version.getOsgiVersion( version );
+            osgiVersions.put( version, result );
+        }
+        return result;
+    }
+
+    private static final class Key
+    {
+        private final String oldValue;
+
+        private final String newValue;
+
+        private final String suffix;
+
+        private final boolean ignoreSuffix;
+
+        private final boolean preserveSnapshot;
+
+        private final int hash;
+
+        private Key( String oldValue, String newValue, String suffix, boolean ignoreSuffix, boolean preserveSnapshot )
+        {
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+            this.suffix = suffix;
+            this.ignoreSuffix = ignoreSuffix;
+            this.preserveSnapshot = preserveSnapshot;
+
+            int h = oldValue.hashCode();
+            h = 31 * h + newValue.hashCode();
+            h = 31 * h + ( suffix == null ? 0 : suffix.hashCode() );
+            h = 31 * h + ( ignoreSuffix ? 1 : 0 );
+            h = 31 * h + ( preserveSnapshot ? 1 : 0 );
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( !( o instanceof Key ) )
+            {
+                return false;
+            }
+            final Key other = (Key) o;
+            return hash == other.hash && ignoreSuffix == other.ignoreSuffix &&
+                            preserveSnapshot == other.preserveSnapshot && oldValue.equals( other.oldValue ) &&
+                            newValue.equals( other.newValue ) &&
+                            ( suffix == null ? other.suffix == null : suffix.equals( other.suffix ) );
+        }
+    }
+}
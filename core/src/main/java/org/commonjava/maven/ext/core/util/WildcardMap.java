@@ -20,8 +20,10 @@ import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.TreeMap;
 
 /**
@@ -29,30 +31,40 @@ import java.util.TreeMap;
  * <p>
  *     String(groupId) : Map (where Map contains String(artifactId):String(value) ).
  * </p>
- * artifactId may be a wildcard (*) or an explicit value.
+ * artifactId may be a wildcard (*) or an explicit value. groupId may be an explicit value or a prefix of the form
+ * <code>org.foo.*</code> which matches every groupId below <code>org.foo</code> (e.g. <code>org.foo.bar</code> but not
+ * <code>org.foo</code> itself).
+ * <p>
+ * Explicit groupIds are held in a hash map while prefixes are held in a trie over the groupId segments. An explicit
+ * groupId mapping takes precedence over any prefix, and the longest matching prefix wins. Lookups do not allocate.
  */
 public class WildcardMap<T>
 {
     public static final String WILDCARD = "*";
 
+    private static final String PREFIX_SUFFIX = "." + WILDCARD;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     /**
-     * This map represents:
-     * <p>
-     * groupId : map where map is artifactId : value
-     * </p>
-     * artifactId may be a wildcard '*'.
+     * Explicit groupId : artifacts of that groupId.
+     */
+    private final Map<String, Artifacts<T>> groups = new HashMap<>();
+
+    /**
+     * Root of the trie of groupId prefixes ; a node holds the artifacts for the prefix ending in that segment.
      */
-    private final TreeMap<String, LinkedHashMap<String,T>> map = new TreeMap<>();
+    private final Node<T> prefixes = new Node<>( null );
+
+    private int prefixCount;
 
     /**
      * Size implementation
-     * @return the size of the wildcard map
+     * @return the number of groupIds (explicit or prefix) in the wildcard map
      */
     public int size ()
     {
-        return map.size();
+        return groups.size() + prefixCount;
     }
 
     /**
@@ -62,10 +74,7 @@ public class WildcardMap<T>
      */
     public boolean containsKey(Dependency key)
     {
-        String groupId = key.getGroupId();
-        String artifactId = key.getArtifactId();
-
-        return internalContainsKey( groupId, artifactId );
+        return get( key.getGroupId(), key.getArtifactId() ) != null;
     }
 
     /**
@@ -75,37 +84,9 @@ public class WildcardMap<T>
      */
     public boolean containsKey(ProjectRef key)
     {
-        String groupId = key.getGroupId();
-        String artifactId = key.getArtifactId();
-
-        return internalContainsKey( groupId, artifactId );
-    }
-
-    private boolean internalContainsKey(String groupId, String artifactId)
-    {
-        boolean result;
-
-        LinkedHashMap vMap = map.get(groupId);
-
-        if ( vMap == null || vMap.isEmpty())
-        {
-            result = false;
-        }
-        else
-        {
-            if ( vMap.get(WILDCARD) != null)
-            {
-                result = true;
-            }
-            else
-            {
-                result = vMap.containsKey(artifactId);
-            }
-        }
-        return result;
+        return get( key.getGroupId(), key.getArtifactId() ) != null;
     }
 
-
     /**
      * Associates the specified value with the specified key in this map.
      * @param key key to associate with
@@ -116,43 +97,46 @@ public class WildcardMap<T>
         String groupId = key.getGroupId();
         String artifactId = key.getArtifactId();
 
-        LinkedHashMap<String,T> vMap = map.get(groupId);
-        if ( vMap == null)
+        Artifacts<T> vMap;
+        if ( isPrefix( groupId ) )
         {
-            vMap = new LinkedHashMap<>();
+            Node<T> node = prefixes.descend( groupId, 0, groupId.length() - PREFIX_SUFFIX.length() );
+            if ( node.artifacts == null )
+            {
+                node.artifacts = new Artifacts<>();
+                prefixCount++;
+            }
+            vMap = node.artifacts;
         }
-        boolean wildcard = false;
-
-        if ( WILDCARD.equals(artifactId))
+        else
         {
-            // Erase any previous mappings.
-            if (!vMap.isEmpty())
+            vMap = groups.get( groupId );
+            if ( vMap == null )
             {
-                logger.warn ("Emptying map with keys " + vMap.keySet() + " as replacing with wildcard mapping " + key);
+                vMap = new Artifacts<>();
+                groups.put( groupId, vMap );
             }
-            vMap.clear();
         }
-        else
+
+        if ( WILDCARD.equals(artifactId))
         {
-            Iterator i = vMap.keySet().iterator();
-            while (i.hasNext())
+            // Erase any previous mappings.
+            if (!vMap.explicit.isEmpty())
             {
-                if (i.next().equals(WILDCARD))
-                {
-                    wildcard = true;
-                }
+                logger.warn ("Emptying map with keys " + vMap.explicit.keySet() + " as replacing with wildcard mapping " + key);
             }
+            vMap.explicit.clear();
+            vMap.wildcard = value;
         }
-        if ( wildcard )
+        else if ( vMap.wildcard != null )
         {
             logger.warn ("Unable to add " + key + " with value " + value +
                     " as wildcard mapping for " + groupId + " already exists.");
         }
         else
         {
-            logger.debug ("Entering artifact of " + artifactId + " and value " + value);
-            vMap.put(artifactId, value);
-            map.put(groupId, vMap);
+            logger.debug ("Entering artifact of {} and value {}", artifactId, value);
+            vMap.explicit.put(artifactId, value);
         }
     }
 
@@ -165,10 +149,7 @@ public class WildcardMap<T>
      */
     public T get(Dependency key)
     {
-        String groupId = key.getGroupId();
-        String artifactId = key.getArtifactId();
-
-        return get( groupId, artifactId );
+        return get( key.getGroupId(), key.getArtifactId() );
     }
 
     /**
@@ -179,48 +160,202 @@ public class WildcardMap<T>
      */
     public T get(ProjectRef key)
     {
-        String groupId = key.getGroupId();
-        String artifactId = key.getArtifactId();
-
-        return get( groupId, artifactId );
+        return get( key.getGroupId(), key.getArtifactId() );
     }
 
     private T get(String groupId, String artifactId)
     {
-        T result = null;
+        Artifacts<T> exact = groups.get( groupId );
+        if ( exact != null )
+        {
+            T result = exact.get( artifactId );
+            if ( result != null )
+            {
+                return result;
+            }
+        }
 
-        LinkedHashMap<String, T> value = map.get(groupId);
-        if (value != null)
+        if ( prefixCount == 0 )
         {
-            logger.debug("Retrieved value map of " + value);
-            if ( value.get(WILDCARD) != null)
+            return null;
+        }
+
+        // Walk the segments of the groupId (excluding the last, as a prefix only matches groupIds below it)
+        // remembering the deepest prefix which maps the artifact.
+        T result = null;
+        Node<T> node = prefixes;
+        int start = 0;
+        int end;
+        while ( ( end = groupId.indexOf( '.', start ) ) >= 0 )
+        {
+            node = node.child( groupId, start, end );
+            if ( node == null )
             {
-                result = value.get(WILDCARD);
+                break;
             }
-            else
+            if ( node.artifacts != null )
             {
-                result = value.get(artifactId);
+                T value = node.artifacts.get( artifactId );
+                if ( value != null )
+                {
+                    result = value;
+                }
             }
+            start = end + 1;
         }
-        logger.debug("Returning result of " + result);
-
         return result;
     }
 
 
+    /**
+     * @param groupId the groupId of a key.
+     * @return whether the groupId is a prefix of the form <code>org.foo.*</code>.
+     */
+    static boolean isPrefix( String groupId )
+    {
+        return groupId.length() > PREFIX_SUFFIX.length() && groupId.endsWith( PREFIX_SUFFIX );
+    }
+
+    /**
+     * Matches a groupId the same way as lookups in this map do, so that other holders of override keys (e.g.
+     * {@link OverrideTable#withoutGA(ProjectRef)}) treat prefixes consistently.
+     *
+     * @param pattern an explicit groupId or a prefix of the form <code>org.foo.*</code>.
+     * @param groupId the groupId to match.
+     * @return whether the groupId is the explicit groupId or is below the prefix.
+     */
+    static boolean matchesGroup( String pattern, String groupId )
+    {
+        if ( !isPrefix( pattern ) )
+        {
+            return pattern.equals( groupId );
+        }
+        // Retain the trailing '.' so that org.foo.* matches org.foo.bar but neither org.foo nor org.foobar.
+        final int length = pattern.length() - WILDCARD.length();
+        return groupId.length() > length && groupId.regionMatches( 0, pattern, 0, length );
+    }
+
     /**
      * @return Returns true if the underlying map is empty.
      */
     public boolean isEmpty()
     {
-        return map.isEmpty();
+        return size() == 0;
     }
 
     @Override
     public String toString()
     {
+        final TreeMap<String, Map<String, T>> map = new TreeMap<>();
+        for ( Map.Entry<String, Artifacts<T>> entry : groups.entrySet() )
+        {
+            map.put( entry.getKey(), entry.getValue().asMap() );
+        }
+        prefixes.collect( new StringBuilder(), map );
+
         return "WildcardMap{" +
                 "map=" + map +
                 '}';
     }
+
+    /**
+     * The artifactId : value mappings of a single groupId (or groupId prefix). If there is a wildcard artifactId
+     * mapping there are no explicit ones.
+     */
+    private static final class Artifacts<T>
+    {
+        private final LinkedHashMap<String, T> explicit = new LinkedHashMap<>();
+
+        private T wildcard;
+
+        private T get( String artifactId )
+        {
+            return wildcard != null ? wildcard : explicit.get( artifactId );
+        }
+
+        private Map<String, T> asMap()
+        {
+            if ( wildcard != null )
+            {
+                final Map<String, T> result = new LinkedHashMap<>();
+                result.put( WILDCARD, wildcard );
+                return result;
+            }
+            return explicit;
+        }
+    }
+
+    /**
+     * A node of the groupId prefix trie. The children are few so are held in arrays and compared in place against
+     * the region of the groupId being looked up.
+     */
+    private static final class Node<T>
+    {
+        private final String segment;
+
+        @SuppressWarnings( "unchecked" )
+        private Node<T>[] children = new Node[0];
+
+        private Artifacts<T> artifacts;
+
+        private Node( String segment )
+        {
+            this.segment = segment;
+        }
+
+        private Node<T> child( String groupId, int start, int end )
+        {
+            final int length = end - start;
+            for ( Node<T> child : children )
+            {
+                if ( child.segment.length() == length && groupId.regionMatches( start, child.segment, 0, length ) )
+                {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the node for the given region of the groupId, creating any missing nodes.
+         */
+        private Node<T> descend( String groupId, int start, int end )
+        {
+            Node<T> node = this;
+            while ( start <= end )
+            {
+                int separator = groupId.indexOf( '.', start );
+                if ( separator < 0 || separator > end )
+                {
+                    separator = end;
+                }
+                Node<T> child = node.child( groupId, start, separator );
+                if ( child == null )
+                {
+                    child = new Node<>( groupId.substring( start, separator ) );
+                    final Node<T>[] grown = Arrays.copyOf( node.children, node.children.length + 1 );
+                    grown[node.children.length] = child;
+                    node.children = grown;
+                }
+                node = child;
+                start = separator + 1;
+            }
+            return node;
+        }
+
+        private void collect( StringBuilder path, Map<String, Map<String, T>> map )
+        {
+            for ( Node<T> child : children )
+            {
+                final int length = path.length();
+                path.append( child.segment ).append( '.' );
+                if ( child.artifacts != null )
+                {
+                    map.put( path + WILDCARD, child.artifacts.asMap() );
+                }
+                child.collect( path, map );
+                path.setLength( length );
+            }
+        }
+    }
 }
@@ -15,22 +15,63 @@
  */
 package org.commonjava.maven.ext.core;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.reflect.FieldUtils;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.repository.DefaultMirrorSelector;
+import org.codehaus.plexus.DefaultPlexusContainer;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.core.fixture.PlexusTestRunner;
+import org.commonjava.maven.ext.core.fixture.StubTransport;
+import org.commonjava.maven.ext.core.impl.DependencyManipulator;
 import org.commonjava.maven.ext.core.impl.Manipulator;
+import org.commonjava.maven.ext.core.impl.PluginManipulator;
+import org.commonjava.maven.ext.core.impl.PropertyManipulator;
+import org.commonjava.maven.ext.core.state.CommonState;
+import org.commonjava.maven.ext.core.state.VersioningState;
+import org.commonjava.maven.ext.io.ModelIO;
+import org.commonjava.maven.ext.io.PomIO;
+import org.commonjava.maven.ext.io.resolver.ExtensionInfrastructure;
+import org.commonjava.maven.ext.io.resolver.GalleyAPIWrapper;
+import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
+import org.commonjava.maven.ext.io.resolver.MavenLocationExpander;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 @RunWith( PlexusTestRunner.class )
 @Component( role = ManipulationManagerTest.class )
 public class ManipulationManagerTest
 {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     @Requirement
     private Map<String, Manipulator> manipulators;
 
@@ -44,4 +85,190 @@ public class ManipulationManagerTest
             assertTrue (entry.getValue().getExecutionIndex() > 0 && entry.getValue().getExecutionIndex() < 100);
         }
     }
+
+    @Test
+    public void testUnchangedPomReportedAsUntouched()
+        throws Exception
+    {
+        final File pom = temp.newFile( "pom.xml" );
+        FileUtils.writeStringToFile( pom, "<project><modelVersion>4.0.0</modelVersion><groupId>org.foo</groupId>"
+                        + "<artifactId>root</artifactId><version>1.0</version><packaging>pom</packaging>"
+                        + "<modules><module>child</module></modules></project>" );
+        final String content = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                        + "  <modelVersion>4.0.0</modelVersion>\n"
+                        + "  <parent>\n"
+                        + "    <groupId>org.foo</groupId>\n"
+                        + "    <artifactId>root</artifactId>\n"
+                        + "    <version>1.0</version>\n"
+                        + "  </parent>\n"
+                        + "  <artifactId>child</artifactId>\n"
+                        + "</project>\n";
+        final File child = new File( temp.newFolder( "child" ), "pom.xml" );
+        FileUtils.writeStringToFile( child, content );
+
+        final Properties props = new Properties();
+        final MavenExecutionRequest req = new DefaultMavenExecutionRequest().setUserProperties( props ).setPom( pom );
+        final ManipulationSession session = new ManipulationSession();
+        session.setMavenSession(
+                        new MavenSession( new DefaultPlexusContainer(), null, req, new DefaultMavenExecutionResult() ) );
+        session.setState( new VersioningState( props ) );
+        session.setState( new CommonState( props ) );
+
+        // Reports the child as changed without modifying it.
+        final Manipulator manipulator = new Manipulator()
+        {
+            @Override
+            public void init( final ManipulationSession session )
+            {
+            }
+
+            @Override
+            public void scan( final List<Project> projects )
+            {
+            }
+
+            @Override
+            public Set<Project> applyChanges( final List<Project> projects )
+            {
+                return Collections.singleton( projects.get( 1 ) );
+            }
+
+            @Override
+            public int getExecutionIndex()
+            {
+                return 50;
+            }
+        };
+
+        final ManipulationManager manager = new ManipulationManager();
+        FieldUtils.writeField( manager, "pomIO", new PomIO(), true );
+        FieldUtils.writeField( manager, "infrastructure", Collections.<String, ExtensionInfrastructure>emptyMap(),
+                               true );
+        FieldUtils.writeField( manager, "orderedManipulators", Collections.singletonList( manipulator ), true );
+
+        manager.scanAndApply( session );
+
+        assertEquals( content, FileUtils.readFileToString( child ) );
+
+        final JsonNode untouched = new ObjectMapper().readTree(
+                        new File( pom.getParentFile(), ManipulationManager.RESULT_FILE ) )
+                                                     .path( "CommonState" )
+                                                     .path( "untouched" );
+        assertEquals( 1, untouched.size() );
+        assertEquals( "org.foo", untouched.get( 0 ).get( "groupId" ).asText() );
+        assertEquals( "child", untouched.get( 0 ).get( "artifactId" ).asText() );
+        assertEquals( "1.0", untouched.get( 0 ).get( "version" ).asText() );
+    }
+
+    @Test
+    public void testRemotePomsPrefetchedOnce()
+        throws Exception
+    {
+        final Map<String, AtomicInteger> downloads = new ConcurrentHashMap<>();
+        final Map<String, byte[]> poms = new HashMap<String, byte[]>()
+        {
+            @Override
+            public byte[] get( final Object key )
+            {
+                AtomicInteger count = downloads.get( key );
+                if ( count == null )
+                {
+                    final AtomicInteger existing = downloads.putIfAbsent( (String) key, count = new AtomicInteger() );
+                    if ( existing != null )
+                    {
+                        count = existing;
+                    }
+                }
+                count.incrementAndGet();
+                return super.get( key );
+            }
+        };
+        poms.put( "org/foo/deps/1.0/deps-1.0.pom", ( "<project><modelVersion>4.0.0</modelVersion>"
+                        + "<groupId>org.foo</groupId><artifactId>deps</artifactId><version>1.0</version>"
+                        + "<packaging>pom</packaging><dependencyManagement><dependencies><dependency>"
+                        + "<groupId>org.bar</groupId><artifactId>bar</artifactId><version>1.0.redhat-1</version>"
+                        + "</dependency></dependencies></dependencyManagement></project>" ).getBytes() );
+        poms.put( "org/foo/plugins/1.0/plugins-1.0.pom", ( "<project><modelVersion>4.0.0</modelVersion>"
+                        + "<groupId>org.foo</groupId><artifactId>plugins</artifactId><version>1.0</version>"
+                        + "<packaging>pom</packaging><build><pluginManagement><plugins><plugin>"
+                        + "<groupId>org.bar</groupId><artifactId>bar-plugin</artifactId><version>1.0.redhat-1</version>"
+                        + "</plugin></plugins></pluginManagement></build></project>" ).getBytes() );
+        poms.put( "org/foo/props/1.0/props-1.0.pom", ( "<project><modelVersion>4.0.0</modelVersion>"
+                        + "<groupId>org.foo</groupId><artifactId>props</artifactId><version>1.0</version>"
+                        + "<packaging>pom</packaging><properties><bar.version>1.0.redhat-1</bar.version>"
+                        + "</properties></project>" ).getBytes() );
+        final String missing = "org/foo/missing/1.0/missing-1.0.pom";
+
+        final File pom = temp.newFile( "pom.xml" );
+        FileUtils.writeStringToFile( pom, "<project><modelVersion>4.0.0</modelVersion><groupId>org.foo</groupId>"
+                        + "<artifactId>root</artifactId><version>1.0</version><dependencies><dependency>"
+                        + "<groupId>org.bar</groupId><artifactId>bar</artifactId><version>1.0</version>"
+                        + "</dependency></dependencies></project>" );
+
+        final Properties props = new Properties();
+        props.setProperty( "dependencyManagement", "org.foo:deps:1.0,org.foo:missing:1.0" );
+        props.setProperty( "pluginManagement", "org.foo:plugins:1.0" );
+        props.setProperty( "propertyManagement", "org.foo:props:1.0" );
+        final MavenExecutionRequest req = new DefaultMavenExecutionRequest().setUserProperties( props ).setPom( pom );
+        final ManipulationSession session = new ManipulationSession();
+        session.setMavenSession(
+                        new MavenSession( new DefaultPlexusContainer(), null, req, new DefaultMavenExecutionResult() ) );
+
+        final GalleyInfrastructure galleyInfra =
+            new GalleyInfrastructure( session.getTargetDir(), session.getRemoteRepositories(), session.getLocalRepository(),
+                                      session.getSettings(), session.getActiveProfiles(), new DefaultMirrorSelector(),
+                                      MavenLocationExpander.EXPANSION_TARGET, new StubTransport( poms ),
+                                      temp.newFolder() );
+        final ModelIO modelIO = new ModelIO();
+        FieldUtils.writeField( modelIO, "galleyWrapper", new GalleyAPIWrapper( galleyInfra ), true );
+
+        final Map<String, Manipulator> manipulators = new LinkedHashMap<>();
+        manipulators.put( "project-dependency-manipulator", new DependencyManipulator() );
+        manipulators.put( "plugin-manipulator", new PluginManipulator() );
+        manipulators.put( "property-manipulator", new PropertyManipulator() );
+        for ( final Manipulator manipulator : manipulators.values() )
+        {
+            FieldUtils.writeField( manipulator, "effectiveModelBuilder", modelIO, true );
+        }
+
+        final PomIO pomIO = new PomIO();
+        final ManipulationManager manager = new ManipulationManager();
+        FieldUtils.writeField( manager, "pomIO", pomIO, true );
+        FieldUtils.writeField( manager, "modelIO", modelIO, true );
+        FieldUtils.writeField( manager, "galleyInfra", galleyInfra, true );
+        FieldUtils.writeField( manager, "infrastructure", Collections.<String, ExtensionInfrastructure>emptyMap(),
+                               true );
+        FieldUtils.writeField( manager, "manipulators", manipulators, true );
+
+        manager.init( session );
+
+        for ( final String path : poms.keySet() )
+        {
+            assertEquals( path, 1, downloads.get( path ).get() );
+        }
+        assertEquals( 1, downloads.get( missing ).get() );
+
+        // Reusing the prefetched POMs must not download them again...
+        assertEquals( "1.0.redhat-1", modelIO.getRemotePropertyMappingOverrides(
+                        SimpleProjectVersionRef.parse( "org.foo:props:1.0" ) ).getProperty( "bar.version" ) );
+        assertEquals( 1, modelIO.getRemotePluginManagementVersionOverrides(
+                        SimpleProjectVersionRef.parse( "org.foo:plugins:1.0" ), props ).size() );
+        for ( final String path : poms.keySet() )
+        {
+            assertEquals( path, 1, downloads.get( path ).get() );
+        }
+
+        // ... while the failed one is retried and reported once the manipulator actually uses it.
+        try
+        {
+            manipulators.get( "project-dependency-manipulator" ).applyChanges( pomIO.parseProject( pom ) );
+            fail( "Expected the missing dependencyManagement POM to be reported" );
+        }
+        catch ( final ManipulationException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().contains( "missing" ) );
+        }
+        assertTrue( downloads.get( missing ).get() > 1 );
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.core.state.CommonState;
+import org.commonjava.maven.ext.core.state.DependencyState;
+import org.commonjava.maven.ext.core.state.VersioningState;
+import org.commonjava.maven.ext.io.PomIO;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DependencyManipulatorTest
+{
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testConcurrentAlignmentMatchesSequential()
+        throws Exception
+    {
+        final List<String> sequential = align( "1" );
+        final List<String> concurrent = align( "4" );
+
+        assertEquals( sequential, concurrent );
+        assertTrue( sequential.get( 0 ).contains( "<version.a>1.0.redhat-1</version.a>" ) );
+        assertTrue( sequential.get( 0 ).contains( "<version.b>2.0.redhat-1</version.b>" ) );
+        assertTrue( sequential.get( 1 ).contains( "<version.c>3.0.redhat-1</version.c>" ) );
+        assertTrue( sequential.toString().contains( "<version>4.0.redhat-1</version>" ) );
+        assertTrue( sequential.toString().contains( "<version>1.0.redhat-2</version>" ) );
+    }
+
+    /**
+     * Aligns a reactor of a root, an intermediate parent and three leaves, the leaves referencing properties of
+     * both parents.
+     *
+     * @return the aligned models, in reactor order.
+     */
+    private List<String> align( final String parallelism )
+        throws Exception
+    {
+        final File root = temp.newFolder();
+        write( root, "<parent/><artifactId>root</artifactId><version>1.0</version><packaging>pom</packaging>"
+                        + "<modules><module>mid</module><module>solo</module></modules>"
+                        + "<properties><version.a>1.0</version.a><version.b>2.0</version.b></properties>"
+                        + "<dependencyManagement><dependencies>"
+                        + dependency( "a", "${version.a}" )
+                        + "</dependencies></dependencyManagement>" );
+        write( new File( root, "mid" ), parent( "root" ) + "<artifactId>mid</artifactId><packaging>pom</packaging>"
+                        + "<modules><module>leaf1</module><module>leaf2</module></modules>"
+                        + "<properties><version.c>3.0</version.c></properties>"
+                        + "<dependencies>" + dependency( "c", "${version.c}" ) + "</dependencies>" );
+        write( new File( root, "mid/leaf1" ), parent( "mid" ) + "<artifactId>leaf1</artifactId><dependencies>"
+                        + dependency( "a", null ) + dependency( "b", "${version.b}" ) + dependency( "d", "4.0" )
+                        + "</dependencies>" );
+        write( new File( root, "mid/leaf2" ), parent( "mid" ) + "<artifactId>leaf2</artifactId><dependencies>"
+                        + dependency( "b", "${version.b}" ) + dependency( "c", "${version.c}" )
+                        + dependency( "e", "1.0" ) + "</dependencies>" );
+        write( new File( root, "solo" ), parent( "root" ) + "<artifactId>solo</artifactId><dependencies>"
+                        + dependency( "b", "${version.b}" ) + dependency( "d", "4.0" ) + dependency( "e", "1.0" )
+                        + "</dependencies>" );
+
+        final Properties props = new Properties();
+        props.setProperty( "dependencyParallelism", parallelism );
+        props.setProperty( "dependencyOverride.org.dep:e@*", "1.0.redhat-2" );
+
+        final List<Project> projects = apply( root, props, "org.dep:a:1.0", "org.dep:b:2.0", "org.dep:c:3.0",
+                                              "org.dep:d:4.0" );
+        assertEquals( 5, projects.size() );
+
+        final List<String> result = new ArrayList<>();
+        for ( final Project project : projects )
+        {
+            final StringWriter writer = new StringWriter();
+            new MavenXpp3Writer().write( writer, project.getModel() );
+            result.add( writer.toString() );
+        }
+        return result;
+    }
+
+    @Test
+    public void testGroupPrefixOverride()
+        throws Exception
+    {
+        final Properties props = new Properties();
+        props.setProperty( "dependencyOverride.org.foo.*:*@*", "1.0.forced" );
+
+        final Model model = apply( prefixedProject(), props, "org.foo.bar:x:1.0", "org.foo.baz:y:1.0",
+                                   "org.foo:z:1.0" ).get( 0 ).getModel();
+
+        assertEquals( "1.0.forced", model.getDependencies().get( 0 ).getVersion() );
+        assertEquals( "1.0.forced", model.getDependencies().get( 1 ).getVersion() );
+        assertEquals( "1.0.redhat-1", model.getDependencies().get( 2 ).getVersion() );
+    }
+
+    @Test
+    public void testGroupPrefixOverridePrevention()
+        throws Exception
+    {
+        final Properties props = new Properties();
+        props.setProperty( "dependencyOverride.org.foo.*:*@*", "" );
+
+        final Model model = apply( prefixedProject(), props, "org.foo.bar:x:1.0", "org.foo.baz:y:1.0",
+                                   "org.foo:z:1.0" ).get( 0 ).getModel();
+
+        assertEquals( "1.0", model.getDependencies().get( 0 ).getVersion() );
+        assertEquals( "1.0", model.getDependencies().get( 1 ).getVersion() );
+        assertEquals( "1.0.redhat-1", model.getDependencies().get( 2 ).getVersion() );
+    }
+
+    /**
+     * @return the directory of a project depending upon artifacts below the org.foo groupId prefix and upon one of
+     * the org.foo groupId itself.
+     */
+    private File prefixedProject()
+        throws Exception
+    {
+        final File root = temp.newFolder();
+        write( root, "<artifactId>root</artifactId><version>1.0</version><dependencies>"
+                        + dependency( "org.foo.bar", "x", "1.0" ) + dependency( "org.foo.baz", "y", "1.0" )
+                        + dependency( "org.foo", "z", "1.0" ) + "</dependencies>" );
+        return root;
+    }
+
+    /**
+     * Aligns the projects of the reactor to the supplied GAVs, each overridden with a <code>.redhat-1</code> suffix.
+     *
+     * @return the aligned projects, in reactor order.
+     */
+    private static List<Project> apply( final File root, final Properties props, final String... gavs )
+        throws Exception
+    {
+        props.setProperty( "dependencySource", "REST" );
+        props.setProperty( "strictAlignment", "false" );
+
+        final ManipulationSession session = new ManipulationSession();
+        final File pom = new File( root, "pom.xml" );
+        final MavenExecutionRequest req = new DefaultMavenExecutionRequest().setUserProperties( props ).setPom( pom );
+        session.setMavenSession(
+                        new MavenSession( new DefaultPlexusContainer(), null, req, new DefaultMavenExecutionResult() ) );
+        session.setState( new CommonState( props ) );
+        session.setState( new VersioningState( props ) );
+
+        final List<Project> projects = new PomIO().parseProject( pom );
+        session.setProjects( projects );
+
+        final DependencyManipulator manipulator = new DependencyManipulator();
+        manipulator.init( session );
+
+        final Map<ArtifactRef, String> overrides = new HashMap<>();
+        for ( final String gav : gavs )
+        {
+            final ArtifactRef ref = SimpleArtifactRef.parse( gav );
+            overrides.put( ref, ref.getVersionString() + ".redhat-1" );
+        }
+        session.getState( DependencyState.class ).setRemoteRESTOverrides( overrides );
+
+        assertEquals( projects.size(), manipulator.applyChanges( projects ).size() );
+        return projects;
+    }
+
+    private static void write( final File directory, final String content )
+        throws Exception
+    {
+        FileUtils.writeStringToFile( new File( directory, "pom.xml" ),
+                                     "<project><modelVersion>4.0.0</modelVersion><groupId>org.foo</groupId>"
+                                                     + content.replace( "<parent/>", "" ) + "</project>" );
+    }
+
+    private static String parent( final String artifactId )
+    {
+        return "<parent><groupId>org.foo</groupId><artifactId>" + artifactId + "</artifactId><version>1.0</version>"
+                        + "</parent><version>1.0</version>";
+    }
+
+    private static String dependency( final String artifactId, final String version )
+    {
+        return dependency( "org.dep", artifactId, version );
+    }
+
+    private static String dependency( final String groupId, final String artifactId, final String version )
+    {
+        return "<dependency><groupId>" + groupId + "</groupId><artifactId>" + artifactId + "</artifactId>"
+                        + ( version == null ? "" : "<version>" + version + "</version>" ) + "</dependency>";
+    }
+}
@@ -145,6 +145,28 @@ public class VersionTest
         assertThat( Version.findHighestMatchingBuildNumber( version, versionSet ), equalTo( 4 ) );
     }
 
+    @Test
+    public void testVersionIndex()
+    {
+        VersionIndex index = new VersionIndex();
+        for ( int i = 1; i <= 2000; i++ )
+        {
+            index.add( "1.2.0.redhat-" + i );
+            index.add( "1.3.0.redhat-" + ( i + 1 ) );
+        }
+        index.add( "1.2.0.Final-redhat-5000" );
+        index.add( "1.2.0.redhat-99999999999" );
+        assertEquals( 3, index.size() );
+
+        assertThat( index.findHighestMatchingBuildNumber( "1.2.redhat" ), equalTo( 2000 ) );
+        assertThat( index.findHighestMatchingBuildNumber( "1.2.0.Final-redhat" ), equalTo( 5000 ) );
+        assertThat( index.findHighestMatchingBuildNumber( "1.3.redhat-1" ), equalTo( 2001 ) );
+        assertThat( index.findHighestMatchingBuildNumber( "1.4.redhat" ), equalTo( 0 ) );
+
+        index.add( "1.4.0.redhat-3" );
+        assertThat( index.findHighestMatchingBuildNumber( "1.4.redhat" ), equalTo( 3 ) );
+    }
+
     @Test
     public void testGetBuildNumber()
     {
@@ -16,12 +16,20 @@
 package org.commonjava.maven.ext.core.io;
 
 import org.apache.commons.lang.reflect.FieldUtils;
+import org.apache.maven.model.Model;
+import org.apache.maven.repository.DefaultMirrorSelector;
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.core.fixture.StubTransport;
 import org.commonjava.maven.ext.io.ModelIO;
 import org.commonjava.maven.ext.io.resolver.GalleyAPIWrapper;
 import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
+import org.commonjava.maven.ext.io.resolver.MavenLocationExpander;
+import org.commonjava.maven.galley.maven.model.view.DependencyView;
 import org.jboss.byteman.contrib.bmunit.BMRule;
 import org.jboss.byteman.contrib.bmunit.BMUnitRunner;
 import org.junit.Rule;
@@ -29,6 +37,15 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
 @RunWith(BMUnitRunner.class)
 public class ModelResolverTest
 {
@@ -56,4 +73,108 @@ public class ModelResolverTest
 
         model.resolveRawModel( SimpleProjectVersionRef.parse( "org.commonjava:commonjava:5"  ) );
     }
+
+    @Test
+    public void resolveRawModelReturnsCopies()
+        throws Exception
+    {
+        final String pom = "<project><modelVersion>4.0.0</modelVersion><groupId>org.foo</groupId>"
+                        + "<artifactId>bar</artifactId><version>1.0</version></project>";
+
+        final ManipulationSession session = new ManipulationSession();
+        final GalleyInfrastructure galleyInfra =
+            new GalleyInfrastructure( session.getTargetDir(), session.getRemoteRepositories(), session.getLocalRepository(),
+                                      session.getSettings(), session.getActiveProfiles(), new DefaultMirrorSelector(),
+                                      MavenLocationExpander.EXPANSION_TARGET,
+                                      new StubTransport( Collections.singletonMap( "org/foo/bar/1.0/bar-1.0.pom",
+                                                                                   pom.getBytes() ) ),
+                                      temp.newFolder( "cache-dir" ) );
+        final GalleyAPIWrapper wrapper = new GalleyAPIWrapper( galleyInfra );
+        final ModelIO model = new ModelIO();
+        FieldUtils.writeField( model, "galleyWrapper", wrapper, true );
+
+        final Model first = model.resolveRawModel( SimpleProjectVersionRef.parse( "org.foo:bar:1.0" ) );
+        first.setVersion( "2.0" );
+        final Model second = model.resolveRawModel( SimpleProjectVersionRef.parse( "org.foo:bar:1.0" ) );
+
+        assertNotSame( first, second );
+        assertEquals( "1.0", second.getVersion() );
+    }
+
+    @Test
+    public void streamedManagedDependenciesMatchPomView()
+        throws Exception
+    {
+        final Map<String, byte[]> poms = new HashMap<>();
+        poms.put( "org/foo/parent/1/parent-1.pom", ( "<project><modelVersion>4.0.0</modelVersion>"
+                        + "<groupId>org.foo</groupId><artifactId>parent</artifactId><version>1</version>"
+                        + "<properties><bar.version>2.0</bar.version></properties>"
+                        + "<dependencyManagement><dependencies>"
+                        + "<dependency><groupId>org.bar</groupId><artifactId>bar</artifactId><version>1.0</version></dependency>"
+                        + "<dependency><groupId>org.bar</groupId><artifactId>bar-api</artifactId><version>${bar.version}</version></dependency>"
+                        + "</dependencies></dependencyManagement></project>" ).getBytes() );
+        poms.put( "org/foo/imported/3/imported-3.pom", ( "<project><modelVersion>4.0.0</modelVersion>"
+                        + "<groupId>org.foo</groupId><artifactId>imported</artifactId><version>3</version>"
+                        + "<dependencyManagement><dependencies>"
+                        + "<dependency><groupId>org.baz</groupId><artifactId>baz</artifactId><version>${project.version}</version></dependency>"
+                        + "<dependency><groupId>org.bar</groupId><artifactId>bar</artifactId><version>9.0</version></dependency>"
+                        + "</dependencies></dependencyManagement></project>" ).getBytes() );
+        poms.put( "org/foo/bom/1.0/bom-1.0.pom", ( "<project><modelVersion>4.0.0</modelVersion>"
+                        + "<parent><groupId>org.foo</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+                        + "<artifactId>bom</artifactId><version>1.0</version>"
+                        + "<properties><bar.version>2.1</bar.version></properties>"
+                        + "<dependencyManagement><dependencies>"
+                        + "<dependency><groupId>${project.groupId}</groupId><artifactId>foo</artifactId><version>${project.version}</version></dependency>"
+                        + "<dependency><groupId>org.foo</groupId><artifactId>foo</artifactId><version>${project.version}</version><classifier>tests</classifier><type>test-jar</type></dependency>"
+                        + "<dependency><groupId>org.foo</groupId><artifactId>imported</artifactId><version>3</version><type>pom</type><scope>import</scope></dependency>"
+                        + "</dependencies></dependencyManagement></project>" ).getBytes() );
+
+        final ManipulationSession session = new ManipulationSession();
+        final GalleyInfrastructure galleyInfra =
+            new GalleyInfrastructure( session.getTargetDir(), session.getRemoteRepositories(), session.getLocalRepository(),
+                                      session.getSettings(), session.getActiveProfiles(), new DefaultMirrorSelector(),
+                                      MavenLocationExpander.EXPANSION_TARGET, new StubTransport( poms ),
+                                      temp.newFolder( "cache-dir" ) );
+        final GalleyAPIWrapper wrapper = new GalleyAPIWrapper( galleyInfra );
+        final ModelIO model = new ModelIO();
+        FieldUtils.writeField( model, "galleyWrapper", wrapper, true );
+
+        final ProjectVersionRef bom = SimpleProjectVersionRef.parse( "org.foo:bom:1.0" );
+        final Map<ArtifactRef, String> expected = new LinkedHashMap<>();
+        for ( final DependencyView dep : wrapper.readPomView( bom ).getAllManagedDependencies() )
+        {
+            expected.put( dep.asArtifactRef(), dep.getVersion() );
+        }
+        final Map<ArtifactRef, String> actual = model.getRemoteDependencyVersionOverrides( bom );
+
+        assertEquals( 5, actual.size() );
+        assertEquals( "2.1", actual.get( new SimpleArtifactRef( SimpleProjectVersionRef.parse( "org.bar:bar-api:2.1" ), "jar",
+                                                                        null ) ) );
+        assertEquals( new ArrayList<>( expected.entrySet() ), new ArrayList<>( actual.entrySet() ) );
+    }
+
+    @Test(expected = ManipulationException.class)
+    public void streamedManagedDependenciesParentWithoutArtifactId()
+        throws Exception
+    {
+        final Map<String, byte[]> poms = new HashMap<>();
+        poms.put( "org/foo/bom/1.0/bom-1.0.pom", ( "<project><modelVersion>4.0.0</modelVersion>"
+                        + "<parent><groupId>org.foo</groupId><version>1</version></parent>"
+                        + "<artifactId>bom</artifactId><version>1.0</version>"
+                        + "<dependencyManagement><dependencies>"
+                        + "<dependency><groupId>org.bar</groupId><artifactId>bar</artifactId><version>1.0</version></dependency>"
+                        + "</dependencies></dependencyManagement></project>" ).getBytes() );
+
+        final ManipulationSession session = new ManipulationSession();
+        final GalleyInfrastructure galleyInfra =
+            new GalleyInfrastructure( session.getTargetDir(), session.getRemoteRepositories(), session.getLocalRepository(),
+                                      session.getSettings(), session.getActiveProfiles(), new DefaultMirrorSelector(),
+                                      MavenLocationExpander.EXPANSION_TARGET, new StubTransport( poms ),
+                                      temp.newFolder( "cache-dir" ) );
+        final ModelIO model = new ModelIO();
+        FieldUtils.writeField( model, "galleyWrapper", new GalleyAPIWrapper( galleyInfra ), true );
+
+        // Falls back to the MavenPomView, which reports the invalid parent, rather than failing with an NPE.
+        model.getRemoteDependencyVersionOverrides( SimpleProjectVersionRef.parse( "org.foo:bom:1.0" ) );
+    }
 }
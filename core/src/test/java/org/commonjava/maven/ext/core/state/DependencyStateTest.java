@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.state;
+
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class DependencyStateTest
+{
+    @Test
+    public void parallelismConfig()
+                    throws ManipulationException
+    {
+        final Properties p = new Properties();
+        p.setProperty( DependencyState.DEPENDENCY_PARALLELISM, "4" );
+
+        assertThat( new DependencyState( new Properties() ).getParallelism(), equalTo( 1 ) );
+        assertThat( new DependencyState( p ).getParallelism(), equalTo( 4 ) );
+    }
+
+    @Test (expected = ManipulationException.class)
+    public void invalidParallelismConfig()
+                    throws ManipulationException
+    {
+        final Properties p = new Properties();
+        p.setProperty( DependencyState.DEPENDENCY_PARALLELISM, "four" );
+
+        new DependencyState( p );
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ModuleOverrideRulesTest
+{
+    private static final ArtifactRef JUNIT = SimpleArtifactRef.parse( "junit:junit:4.1.redhat-1" );
+
+    private static final ArtifactRef FOO = SimpleArtifactRef.parse( "org.foo:foo:1.0.redhat-1" );
+
+    @Test
+    public void testModuleRules() throws Exception
+    {
+        Map<String, String> exclusions = new HashMap<>();
+        exclusions.put( "junit:junit", "4.2" );
+        exclusions.put( "org.foo:foo@org.bar:module", "" );
+        exclusions.put( "org.baz:baz@org.bar:*", "2.0" );
+        exclusions.put( "junit:junit@*", "4.0" );
+        ModuleOverrideRules rules = new ModuleOverrideRules( exclusions );
+
+        OverrideTable table = new OverrideTable( overrides( JUNIT, FOO ) );
+
+        WildcardMap<String> explicit = new WildcardMap<>();
+        OverrideTable result = rules.apply( "org.bar:module", table, explicit );
+        assertTrue( result.get( FOO.asProjectRef() ).isEmpty() );
+        assertEquals( "2.0", explicit.get( SimpleProjectRef.parse( "org.baz:baz" ) ) );
+        assertEquals( "4.0", explicit.get( SimpleProjectRef.parse( "junit:junit" ) ) );
+
+        explicit = new WildcardMap<>();
+        result = rules.apply( "org.other:module", table, explicit );
+        assertSame( table, result );
+        assertFalse( explicit.containsKey( SimpleProjectRef.parse( "org.baz:baz" ) ) );
+        assertEquals( "4.0", explicit.get( SimpleProjectRef.parse( "junit:junit" ) ) );
+    }
+
+    @Test
+    public void testModuleRulePrecedence() throws Exception
+    {
+        Map<String, String> exclusions = new HashMap<>();
+        exclusions.put( "junit:junit@org.bar:module", "4.5" );
+        exclusions.put( "junit:junit@*", "" );
+        ModuleOverrideRules rules = new ModuleOverrideRules( exclusions );
+
+        OverrideTable table = new OverrideTable( overrides( JUNIT ) );
+
+        WildcardMap<String> explicit = new WildcardMap<>();
+        assertSame( table, rules.apply( "org.bar:module", table, explicit ) );
+        assertEquals( "4.5", explicit.get( SimpleProjectRef.parse( "junit:junit" ) ) );
+
+        explicit = new WildcardMap<>();
+        assertTrue( rules.apply( "org.bar:other", table, explicit ).isEmpty() );
+    }
+
+    @Test
+    public void testGroupPrefixRules() throws Exception
+    {
+        Map<String, String> exclusions = new HashMap<>();
+        exclusions.put( "org.foo.*:*@org.bar.*:*", "" );
+        exclusions.put( "junit:junit@org.bar.*:module", "4.5" );
+        ModuleOverrideRules rules = new ModuleOverrideRules( exclusions );
+
+        ArtifactRef nested = SimpleArtifactRef.parse( "org.foo.bar:baz:1.0.redhat-1" );
+        OverrideTable table = new OverrideTable( overrides( JUNIT, FOO, nested ) );
+
+        WildcardMap<String> explicit = new WildcardMap<>();
+        OverrideTable result = rules.apply( "org.bar.baz:module", table, explicit );
+        assertTrue( result.get( nested.asProjectRef() ).isEmpty() );
+        assertEquals( 2, result.size() );
+        assertEquals( "4.5", explicit.get( SimpleProjectRef.parse( "junit:junit" ) ) );
+
+        explicit = new WildcardMap<>();
+        result = rules.apply( "org.bar.baz:other", table, explicit );
+        assertEquals( 2, result.size() );
+        assertTrue( explicit.isEmpty() );
+
+        explicit = new WildcardMap<>();
+        assertSame( table, rules.apply( "org.bar:module", table, explicit ) );
+        assertTrue( explicit.isEmpty() );
+    }
+
+    @Test( expected = ManipulationException.class )
+    public void testInvalidKey() throws Exception
+    {
+        new ModuleOverrideRules( Collections.singletonMap( "junit:junit@org.bar:module@extra", "1.0" ) );
+    }
+
+    private static Map<ArtifactRef, String> overrides( ArtifactRef... refs )
+    {
+        Map<ArtifactRef, String> result = new LinkedHashMap<>();
+        for ( ArtifactRef ref : refs )
+        {
+            result.put( ref, ref.getVersionString() );
+        }
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OverrideTableTest
+{
+    private static final ArtifactRef JUNIT_3 = SimpleArtifactRef.parse( "junit:junit:3.8.2.redhat-1" );
+
+    private static final ArtifactRef JUNIT_4 = SimpleArtifactRef.parse( "junit:junit:4.1.redhat-1" );
+
+    private static final ArtifactRef FOO = SimpleArtifactRef.parse( "org.foo:foo:1.0.redhat-1" );
+
+    private static final ArtifactRef BAR = SimpleArtifactRef.parse( "org.foo:bar:1.0.redhat-1" );
+
+    @Test
+    public void testLookupByGA()
+    {
+        OverrideTable table = new OverrideTable( overrides( JUNIT_3, FOO, JUNIT_4 ) );
+
+        assertEquals( Arrays.asList( JUNIT_3, JUNIT_4 ), table.get( SimpleProjectRef.parse( "junit:junit" ) ) );
+        assertEquals( Collections.singletonList( FOO ), table.get( FOO.asProjectRef() ) );
+        assertTrue( table.get( SimpleProjectRef.parse( "org.foo:missing" ) ).isEmpty() );
+        assertEquals( "4.1.redhat-1", table.get( JUNIT_4 ) );
+    }
+
+    @Test
+    public void testMerge()
+    {
+        Map<ArtifactRef, String> lower = overrides( JUNIT_3, FOO );
+        Map<ArtifactRef, String> higher = overrides( BAR, JUNIT_4 );
+
+        OverrideTable table = OverrideTable.merge( lower, higher );
+
+        assertEquals( Arrays.asList( FOO, BAR, JUNIT_4 ), new ArrayList<>( table.asMap().keySet() ) );
+        assertEquals( 2, lower.size() );
+    }
+
+    @Test
+    public void testWithout()
+    {
+        OverrideTable table = new OverrideTable( overrides( JUNIT_3, FOO, BAR, JUNIT_4 ) );
+
+        assertSame( table, table.without( Collections.singletonList( SimpleArtifactRef.parse( "org.foo:foo:2.0" ) ) ) );
+        assertSame( table, table.withoutGA( SimpleProjectRef.parse( "org.foo:missing" ) ) );
+
+        assertEquals( Arrays.asList( FOO, BAR ),
+                      new ArrayList<>( table.withoutGA( SimpleProjectRef.parse( "junit:junit" ) ).asMap().keySet() ) );
+        assertEquals( Arrays.asList( JUNIT_3, JUNIT_4 ),
+                      new ArrayList<>( table.withoutGA( SimpleProjectRef.parse( "org.foo:*" ) ).asMap().keySet() ) );
+        assertEquals( Arrays.asList( JUNIT_3, BAR, JUNIT_4 ),
+                      new ArrayList<>( table.withoutGA( SimpleProjectRef.parse( "*:foo" ) ).asMap().keySet() ) );
+        assertTrue( table.withoutGA( SimpleProjectRef.parse( "*:*" ) ).isEmpty() );
+        assertEquals( 4, table.size() );
+    }
+
+    @Test
+    public void testWithoutGroupPrefix()
+    {
+        ArtifactRef nested = SimpleArtifactRef.parse( "org.foo.bar:baz:1.0.redhat-1" );
+        ArtifactRef deeper = SimpleArtifactRef.parse( "org.foo.bar.deep:baz:1.0.redhat-1" );
+        ArtifactRef sibling = SimpleArtifactRef.parse( "org.foobar:baz:1.0.redhat-1" );
+        OverrideTable table = new OverrideTable( overrides( FOO, nested, deeper, sibling ) );
+
+        // As WildcardMap, a prefix only matches the groupIds below it.
+        assertEquals( Arrays.asList( FOO, sibling ),
+                      new ArrayList<>( table.withoutGA( SimpleProjectRef.parse( "org.foo.*:*" ) ).asMap().keySet() ) );
+        assertEquals( Arrays.asList( FOO, nested, sibling ),
+                      new ArrayList<>( table.withoutGA( SimpleProjectRef.parse( "org.foo.bar.*:baz" ) ).asMap().keySet() ) );
+        assertSame( table, table.withoutGA( SimpleProjectRef.parse( "org.foo.*:missing" ) ) );
+    }
+
+    private static Map<ArtifactRef, String> overrides( ArtifactRef... refs )
+    {
+        Map<ArtifactRef, String> result = new LinkedHashMap<>();
+        for ( ArtifactRef ref : refs )
+        {
+            result.put( ref, ref.getVersionString() );
+        }
+        return result;
+    }
+}
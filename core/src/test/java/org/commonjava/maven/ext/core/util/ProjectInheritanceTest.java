@@ -15,28 +15,39 @@
  */
 package org.commonjava.maven.ext.core.util;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.maven.model.Dependency;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
 import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.model.ReactorIndex;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.fixture.TestUtils;
 import org.commonjava.maven.ext.io.PomIO;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ProjectInheritanceTest
 {
     private static final String RESOURCE_BASE = "properties/";
 
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     @Test
     public void testVerifyInheritance() throws Exception
     {
@@ -226,4 +237,104 @@ public class ProjectInheritanceTest
         }
     }
 
+    @Test
+    public void testConcurrentParsingMatchesSequential() throws Exception
+    {
+        final File projectroot = new File (TestUtils.resolveFileResource( RESOURCE_BASE, "" )
+                                                    .getParentFile()
+                                                    .getParentFile()
+                                                    .getParentFile()
+                                                    .getParentFile(), "pom.xml" );
+        PomIO pomIO = new PomIO();
+
+        pomIO.setParallelism( 1 );
+        List<Project> sequential = pomIO.parseProject( projectroot );
+
+        pomIO.setParallelism( 4 );
+        List<Project> concurrent = pomIO.parseProject( projectroot );
+
+        assertEquals( sequential.size(), concurrent.size() );
+        for ( int i = 0; i < sequential.size(); i++ )
+        {
+            assertEquals( sequential.get( i ).getPom(), concurrent.get( i ).getPom() );
+            assertEquals( sequential.get( i ).getKey(), concurrent.get( i ).getKey() );
+            assertEquals( sequential.get( i ).isInheritanceRoot(), concurrent.get( i ).isInheritanceRoot() );
+            assertEquals( sequential.get( i ).getProjectParent(), concurrent.get( i ).getProjectParent() );
+        }
+    }
+
+    @Test
+    public void testCachedInheritedList() throws Exception
+    {
+        final Project root = new Project( TestUtils.resolveModelResource( RESOURCE_BASE, "infinispan-bom-8.2.0.Final.pom" ) );
+        final Project parent = new Project( TestUtils.resolveModelResource( RESOURCE_BASE, "infinispan-bom-8.2.0.Final.pom" ) );
+        final Project child = new Project( TestUtils.resolveModelResource( RESOURCE_BASE, "inherited-properties.pom" ) );
+        child.setProjectParent( parent );
+
+        final List<Project> inherited = child.getInheritedList();
+        assertEquals( Arrays.asList( parent, child ), inherited );
+        assertEquals( Arrays.asList( child, parent ), child.getReverseInheritedList() );
+        assertSame( inherited, child.getInheritedList() );
+
+        // Changing the parent of an ancestor is reflected.
+        parent.setProjectParent( root );
+        assertEquals( Arrays.asList( root, parent, child ), child.getInheritedList() );
+        assertEquals( Arrays.asList( child, parent, root ), child.getReverseInheritedList() );
+
+        try
+        {
+            child.getInheritedList().add( root );
+            fail( "Inherited list should be unmodifiable" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // Pass.
+        }
+    }
+
+    @Test
+    public void testReactorIndex() throws Exception
+    {
+        final File projectroot = new File (TestUtils.resolveFileResource( RESOURCE_BASE, "" )
+                                                    .getParentFile()
+                                                    .getParentFile()
+                                                    .getParentFile()
+                                                    .getParentFile(), "integration-test/src/it/project-inheritance/pom.xml" );
+        PomIO pomIO = new PomIO();
+        List<Project> projects = pomIO.parseProject( projectroot );
+
+        final ManipulationSession session = new ManipulationSession();
+        session.setProjects( projects );
+        ReactorIndex index = session.getReactorIndex();
+
+        for ( Project p : projects )
+        {
+            assertSame( p, index.getProject( p.getKey() ) );
+            assertTrue( index.contains( p.getKey().asProjectRef() ) );
+            assertTrue( index.getProjects( p.getKey() ).contains( p ) );
+        }
+        assertFalse( index.contains( "org.foo", "bar" ) );
+    }
+
+    @Test
+    public void testModulePathKeptAsWritten() throws Exception
+    {
+        final File root = temp.newFolder( "root" ).getCanonicalFile();
+        final File child = new File( root, "child" );
+        FileUtils.writeStringToFile( new File( root, "pom.xml" ),
+                                     "<project><modelVersion>4.0.0</modelVersion><groupId>org.foo</groupId>"
+                                                     + "<artifactId>root</artifactId><version>1.0</version>"
+                                                     + "<packaging>pom</packaging><modules><module>./child</module>"
+                                                     + "</modules></project>" );
+        FileUtils.writeStringToFile( new File( child, "pom.xml" ),
+                                     "<project><modelVersion>4.0.0</modelVersion><parent><groupId>org.foo</groupId>"
+                                                     + "<artifactId>root</artifactId><version>1.0</version></parent>"
+                                                     + "<artifactId>child</artifactId></project>" );
+
+        List<Project> projects = new PomIO().parseProject( new File( root, "pom.xml" ) );
+
+        assertEquals( 2, projects.size() );
+        assertEquals( new File( new File( root, "./child" ), "pom.xml" ), projects.get( 1 ).getPom() );
+        assertEquals( new File( root, "pom.xml" ), projects.get( 1 ).getProjectParent().getPom() );
+    }
 }
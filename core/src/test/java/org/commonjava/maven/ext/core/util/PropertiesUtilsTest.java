@@ -21,11 +21,13 @@ import org.apache.maven.execution.DefaultMavenExecutionResult;
 import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
 import org.codehaus.plexus.DefaultPlexusContainer;
 import org.codehaus.plexus.PlexusContainer;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.util.PropertyResolver;
+import org.commonjava.maven.ext.common.util.PropertyScope;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.fixture.TestUtils;
 import org.commonjava.maven.ext.core.state.CommonState;
@@ -44,7 +46,11 @@ import java.util.Map;
 import java.util.Properties;
 
 import static org.commonjava.maven.ext.core.util.PropertiesUtils.updateProperties;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class PropertiesUtilsTest
@@ -100,6 +106,40 @@ public class PropertiesUtilsTest
         assertTrue( PropertiesUtils.checkStrictValue( session, "1.0-SNAPSHOT", "1.0.0.t20170216223844555-rebuild-2" ) );
     }
 
+    @Test
+    public void testCheckStrictValueMemoized() throws Exception
+    {
+        ManipulationSession session = createUpdateSession();
+        final StrictValueCache cache = session.getStrictValueCache();
+        final boolean ignoreSuffix = session.getState( CommonState.class ).getStrictIgnoreSuffix();
+        final boolean preserveSnapshot = session.getState( VersioningState.class ).preserveSnapshot();
+
+        assertNull( cache.get( "1.0.0", "1.0.0.redhat-1", "redhat", ignoreSuffix, preserveSnapshot ) );
+        assertNull( cache.get( "1.0.0.Final", "1.0.0.redhat-1", "redhat", ignoreSuffix, preserveSnapshot ) );
+
+        assertTrue( PropertiesUtils.checkStrictValue( session, "1.0.0", "1.0.0.redhat-1" ) );
+        assertFalse( PropertiesUtils.checkStrictValue( session, "1.0.0.Final", "1.0.0.redhat-1" ) );
+
+        assertEquals( Boolean.TRUE, cache.get( "1.0.0", "1.0.0.redhat-1", "redhat", ignoreSuffix, preserveSnapshot ) );
+        assertEquals( Boolean.FALSE,
+                      cache.get( "1.0.0.Final", "1.0.0.redhat-1", "redhat", ignoreSuffix, preserveSnapshot ) );
+
+        // A recorded result is returned without checking again.
+        cache.put( "1.0.0", "1.0.0.redhat-1", "redhat", ignoreSuffix, preserveSnapshot, false );
+        assertFalse( PropertiesUtils.checkStrictValue( session, "1.0.0", "1.0.0.redhat-1" ) );
+        cache.put( "1.0.0", "1.0.0.redhat-1", "redhat", ignoreSuffix, preserveSnapshot, true );
+
+        // The same pair with a different suffix configured within the same session must not reuse the result.
+        p.setProperty( "version.suffix", "rebuild-1" );
+        session.setState( new VersioningState( p ) );
+
+        assertNull( cache.get( "1.0.0", "1.0.0.redhat-1", "rebuild", ignoreSuffix, preserveSnapshot ) );
+        assertFalse( PropertiesUtils.checkStrictValue( session, "1.0.0", "1.0.0.redhat-1" ) );
+        assertEquals( Boolean.FALSE, cache.get( "1.0.0", "1.0.0.redhat-1", "rebuild", ignoreSuffix, preserveSnapshot ) );
+        assertEquals( Boolean.TRUE, cache.get( "1.0.0", "1.0.0.redhat-1", "redhat", ignoreSuffix, preserveSnapshot ) );
+        assertTrue( PropertiesUtils.checkStrictValue( session, "1.0.0", "1.0.0.rebuild-1" ) );
+    }
+
     @Test
     public void testCacheProperty() throws Exception
     {
@@ -221,6 +261,96 @@ public class PropertiesUtilsTest
         assertTrue( result.equals( "1" ) );
     }
 
+    @Test
+    public void testResolveInheritedPropertiesAfterUpdate() throws Exception
+    {
+        Project pP = getProject();
+        ManipulationSession session = createUpdateSession();
+
+        assertTrue( PropertyResolver.resolveInheritedProperties( session, pP, "${version.hibernate.core}" )
+                                    .equals( "5.0.4.Final" ) );
+        PropertyScope scope = pP.getPropertyScope();
+        assertTrue( PropertyResolver.resolveInheritedProperties( session, pP, "${version.scala}" ).equals( "2.11.7" ) );
+        assertSame( scope, pP.getPropertyScope() );
+
+        assertTrue( updateProperties( session, pP, false, "version.hibernate.core", "5.0.4.Final-redhat-1" ) == PropertiesUtils.PropertyUpdate.FOUND);
+
+        assertTrue( PropertyResolver.resolveInheritedProperties( session, pP, "${version.hibernate.core}" )
+                                    .equals( "5.0.4.Final-redhat-1" ) );
+        assertNotSame( scope, pP.getPropertyScope() );
+    }
+
+    @Test
+    public void testUpdateOnlyInvalidatesInheritingScopes() throws Exception
+    {
+        final Project parent = new Project( newModel( "parent" ) );
+        parent.getModel().getProperties().setProperty( "version.a", "1.0" );
+        final Project child = new Project( newModel( "child" ) );
+        child.getModel().getProperties().setProperty( "version.b", "2.0" );
+        child.setProjectParent( parent );
+        final Project other = new Project( newModel( "other" ) );
+        other.getModel().getProperties().setProperty( "version.c", "3.0" );
+        ManipulationSession session = createUpdateSession();
+
+        assertEquals( "1.0", PropertyResolver.resolveInheritedProperties( session, parent, "${version.a}" ) );
+        assertEquals( "1.0", PropertyResolver.resolveInheritedProperties( session, child, "${version.a}" ) );
+        assertEquals( "3.0", PropertyResolver.resolveInheritedProperties( session, other, "${version.c}" ) );
+        final PropertyScope parentScope = parent.getPropertyScope();
+        final PropertyScope childScope = child.getPropertyScope();
+        final PropertyScope otherScope = other.getPropertyScope();
+
+        // Updating the child leaves its parent and the unrelated project alone.
+        assertTrue( updateProperties( session, child, false, "version.b", "2.0.redhat-1" ) == PropertiesUtils.PropertyUpdate.FOUND );
+        assertEquals( "2.0.redhat-1", PropertyResolver.resolveInheritedProperties( session, child, "${version.b}" ) );
+        assertNotSame( childScope, child.getPropertyScope() );
+        PropertyResolver.resolveInheritedProperties( session, parent, "${version.a}" );
+        assertSame( parentScope, parent.getPropertyScope() );
+
+        // Updating the parent invalidates the child as well.
+        assertTrue( updateProperties( session, child, false, "version.a", "1.0.redhat-1" ) == PropertiesUtils.PropertyUpdate.FOUND );
+        assertEquals( "1.0.redhat-1", PropertyResolver.resolveInheritedProperties( session, child, "${version.a}" ) );
+        assertEquals( "1.0.redhat-1", PropertyResolver.resolveInheritedProperties( session, parent, "${version.a}" ) );
+        assertNotSame( parentScope, parent.getPropertyScope() );
+
+        PropertyResolver.resolveInheritedProperties( session, other, "${version.c}" );
+        assertSame( otherScope, other.getPropertyScope() );
+
+        // Scopes are not shared between sessions.
+        PropertyResolver.resolveInheritedProperties( createUpdateSession(), other, "${version.c}" );
+        assertNotSame( otherScope, other.getPropertyScope() );
+    }
+
+    @Test
+    public void testUpdateIndexedProperties() throws Exception
+    {
+        final Model model = new Model();
+        model.setGroupId( "org.foo" );
+        model.setArtifactId( "bar" );
+        model.setVersion( "1.0" );
+        model.getProperties().setProperty( "version.a", "1.0" );
+        final Profile profile = new Profile();
+        profile.setId( "p" );
+        profile.getProperties().setProperty( "version.a", "1.0" );
+        profile.getProperties().setProperty( "version.b", "${version.a}" );
+        model.addProfile( profile );
+        final Project pP = new Project( model );
+
+        // Scan all profiles.
+        p.remove( "scanActiveProfiles" );
+        ManipulationSession session = createUpdateSession();
+
+        assertTrue( updateProperties( session, pP, false, "version.b", "1.0.redhat-1" ) == PropertiesUtils.PropertyUpdate.FOUND );
+        assertEquals( "1.0.redhat-1", model.getProperties().getProperty( "version.a" ) );
+        assertEquals( "1.0", profile.getProperties().getProperty( "version.a" ) );
+        assertEquals( "${version.a}", profile.getProperties().getProperty( "version.b" ) );
+
+        assertTrue( updateProperties( session, pP, false, "version.c", "1.0" ) == PropertiesUtils.PropertyUpdate.NOTFOUND );
+        profile.getProperties().setProperty( "version.c", "1.0" );
+        PropertyResolver.invalidate( session, pP );
+        assertTrue( updateProperties( session, pP, false, "version.c", "1.0.redhat-1" ) == PropertiesUtils.PropertyUpdate.FOUND );
+        assertEquals( "1.0.redhat-1", profile.getProperties().getProperty( "version.c" ) );
+    }
+
     @Test
     public void testUpdateProjectVersionProperty() throws Exception
     {
@@ -237,6 +367,15 @@ public class PropertiesUtilsTest
         return new Project( modelParent );
     }
 
+    private static Model newModel( final String artifactId )
+    {
+        final Model model = new Model();
+        model.setGroupId( "org.foo" );
+        model.setArtifactId( artifactId );
+        model.setVersion( "1.0" );
+        return model;
+    }
+
     private ManipulationSession createUpdateSession() throws Exception
     {
         ManipulationSession session = new ManipulationSession();
@@ -17,7 +17,13 @@ package org.commonjava.maven.ext.core.util;
 
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Model;
+import org.codehaus.plexus.interpolation.InterpolationException;
+import org.codehaus.plexus.interpolation.PrefixAwareRecursionInterceptor;
+import org.codehaus.plexus.interpolation.PrefixedObjectValueSource;
+import org.codehaus.plexus.interpolation.PropertiesBasedValueSource;
+import org.codehaus.plexus.interpolation.StringSearchInterpolator;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.util.PropertyInterpolator;
 import org.commonjava.maven.ext.core.ManipulationSession;
@@ -26,9 +32,12 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Properties;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -60,6 +69,80 @@ public class PropertyInterpolatorTest
         assertTrue( pi.interp( "${version.hibernate.osgi}" ).equals( "5.0.4.Final" ) );
     }
 
+    @Test
+    public void testInterpolateExpressions() throws Exception
+    {
+        Properties props = new Properties();
+        props.setProperty( "major", "2" );
+        props.setProperty( "version", "${major}.11" );
+
+        final Model model = TestUtils.resolveModelResource( RESOURCE_BASE, "infinispan-bom-8.2.0.Final.pom" );
+        PropertyInterpolator pi = new PropertyInterpolator( props, new Project( model ) );
+
+        assertEquals( "1.0", pi.interp( "1.0" ) );
+        assertEquals( "2.11", pi.interp( "${version}" ) );
+        assertEquals( "v2.11-2.x", pi.interp( "v${version}-${major}.x" ) );
+        assertEquals( "${unknown}.2", pi.interp( "${unknown}.${major}" ) );
+        assertEquals( "2.${major", pi.interp( "${major}.${major" ) );
+        assertEquals( model.getVersion(), pi.interp( "${project.version}" ) );
+    }
+
+    @Test
+    public void testInterpolateAsPlexus() throws Exception
+    {
+        Properties props = new Properties();
+        props.setProperty( "major", "2" );
+        props.setProperty( "version", "${major}.11" );
+        props.setProperty( "nested", "${version}-${.major}" );
+        props.setProperty( "project.qualifier", "Final" );
+        props.setProperty( "qualified", "${version}.${project.qualifier}" );
+        props.setProperty( "groupId", "${project.groupId}" );
+        props.setProperty( "unknown", "${missing}" );
+        props.setProperty( "self", "a${self}" );
+        props.setProperty( "cycle.a", "${cycle.b}" );
+        props.setProperty( "cycle.b", "${cycle.a}" );
+        props.setProperty( "prefixed", "${project.prefixed}" );
+        props.setProperty( "project.prefixed", "1.0" );
+        props.setProperty( "projectfoo", "${foo}" );
+        props.setProperty( "foo", "${projectfoo}" );
+        props.setProperty( "unterminated", "${major" );
+
+        final Model model = TestUtils.resolveModelResource( RESOURCE_BASE, "infinispan-bom-8.2.0.Final.pom" );
+        final Project project = new Project( model );
+        final PropertyInterpolator pi = new PropertyInterpolator( props, project );
+
+        final List<String> prefixes = Arrays.asList( "pom", "project" );
+        final StringSearchInterpolator expected = new StringSearchInterpolator();
+        expected.addValueSource( new PropertiesBasedValueSource( props ) );
+        expected.addValueSource( new PrefixedObjectValueSource( prefixes, project, true ) );
+
+        for ( final String value : Arrays.asList( "${major}", "${nested}", "x${qualified}y", "${groupId}:${version}",
+                                                  "${unknown}", "${self}", "${cycle.a}", "${prefixed}", "${foo}",
+                                                  "${unterminated}-${major}", "${}", "${major}${", "${${major}}",
+                                                  "${project.version}" ) )
+        {
+            String result;
+            try
+            {
+                result = pi.interp( value );
+            }
+            catch ( ManipulationException e )
+            {
+                result = "error";
+            }
+            String plexus;
+            try
+            {
+                plexus = expected.interpolate( value, new PrefixAwareRecursionInterceptor( prefixes, true ) );
+            }
+            catch ( InterpolationException e )
+            {
+                plexus = "error";
+            }
+            assertEquals( value, plexus, result );
+        }
+    }
+
     @Test
     public void testInteropolateDependencies() throws Exception
     {
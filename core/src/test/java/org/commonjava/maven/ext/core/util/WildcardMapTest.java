@@ -26,6 +26,7 @@ import org.junit.Test;
 import org.slf4j.LoggerFactory;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -137,4 +138,23 @@ public class WildcardMapTest
                 containsString("Emptying map with keys [artifact] as replacing with wildcard mapping org.group:*"));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGroupPrefix() throws Exception
+    {
+        map.put( SimpleProjectRef.parse( "org.foo.*:*" ), "1.0" );
+        map.put( SimpleProjectRef.parse( "org.foo.bar.*:baz" ), "2.0" );
+        map.put( SimpleProjectRef.parse( "org.foo.bar:explicit" ), "3.0" );
+
+        assertEquals( 3, map.size() );
+        assertEquals( "1.0", map.get( SimpleProjectRef.parse( "org.foo.bar:artifact" ) ) );
+        assertEquals( "1.0", map.get( SimpleProjectRef.parse( "org.foo.bar.qux:artifact" ) ) );
+        assertEquals( "2.0", map.get( SimpleProjectRef.parse( "org.foo.bar.qux:baz" ) ) );
+        assertEquals( "3.0", map.get( SimpleProjectRef.parse( "org.foo.bar:explicit" ) ) );
+        assertEquals( "1.0", map.get( SimpleProjectRef.parse( "org.foo.bar:baz" ) ) );
+
+        assertFalse( map.containsKey( SimpleProjectRef.parse( "org.foo:artifact" ) ) );
+        assertFalse( map.containsKey( SimpleProjectRef.parse( "org.foobar:artifact" ) ) );
+        assertFalse( map.containsKey( SimpleProjectRef.parse( "org:artifact" ) ) );
+    }
+}
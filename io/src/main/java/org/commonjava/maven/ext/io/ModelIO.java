@@ -25,9 +25,13 @@ import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.InvalidRefException;
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.atlas.ident.version.InvalidVersionSpecificationException;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.io.resolver.GalleyAPIWrapper;
 import org.commonjava.maven.galley.TransferException;
@@ -39,17 +43,28 @@ import org.commonjava.maven.galley.model.Transfer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import static org.apache.commons.io.IOUtils.closeQuietly;
 import static org.apache.commons.lang.StringUtils.isEmpty;
@@ -61,6 +76,12 @@ import static org.apache.commons.lang.StringUtils.isNotEmpty;
 @Component( role = ModelIO.class )
 public class ModelIO
 {
+    private static final String DEFAULT_PLUGIN_GROUPID = "org.apache.maven.plugins";
+
+    private static final int MAX_PARENT_DEPTH = 64;
+
+    private static final int MAX_INTERPOLATION_DEPTH = 32;
+
     private enum PluginType
     {
         PluginMgmt, Plugins;
@@ -85,44 +106,151 @@ public class ModelIO
     @Requirement
     private GalleyAPIWrapper galleyWrapper;
 
+    /**
+     * Remote POMs resolved during this session, keyed by GAV, so that each is only fetched and parsed once however
+     * many manipulators read it.
+     */
+    private final ConcurrentMap<ProjectVersionRef, RemotePom> remotePoms = new ConcurrentHashMap<>();
+
+    /**
+     * Discard the remote POMs cached by a previous session.
+     */
+    public void clearCache()
+    {
+        remotePoms.clear();
+    }
 
     /**
-     * Read the raw model (equivalent to the pom file on disk) from a given GAV.
+     * Resolve the given remote POMs (and their parents) concurrently so that later calls for them do not have to
+     * wait upon the repositories. Failures are not reported here ; the POM is simply resolved again (and the failure
+     * reported) when it is used.
      *
-     * @param ref the ProjectVersion to read.
-     * @return the Maven Model for the GAV
-     * @throws ManipulationException if an error occurs.
+     * @param refs the POMs to resolve.
+     * @param parallelism the maximum number of POMs to resolve at once.
      */
-    public Model resolveRawModel( final ProjectVersionRef ref )
-                    throws ManipulationException
+    public void prefetch( final Collection<ProjectVersionRef> refs, final int parallelism )
     {
-        Transfer transfer;
-        try
-        {
-            transfer = galleyWrapper.resolveArtifact( ref.asPomArtifact() );
-        }
-        catch ( final TransferException e )
-        {
-            throw new ManipulationException( "Failed to resolve POM: %s.\n--> %s", e, ref, e.getMessage() );
-        }
-        if ( transfer == null )
+        final List<Callable<Void>> tasks = new ArrayList<>( refs.size() );
+
+        for ( final ProjectVersionRef ref : new LinkedHashSet<>( refs ) )
         {
-            throw new ManipulationException( "Failed to resolve POM: " + ref.asPomArtifact() );
+            tasks.add( new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    try
+                    {
+                        if ( resolvePom( ref ) == null )
+                        {
+                            // Left unresolved so that it is retried, and reported, when it is actually used.
+                            logger.debug( "Unable to prefetch {} : not found", ref );
+                        }
+                        else if ( streamManagedDependencies( ref ) == null )
+                        {
+                            readPomView( ref );
+                        }
+                    }
+                    catch ( final TransferException | GalleyMavenException e )
+                    {
+                        logger.debug( "Unable to prefetch {} : {}", ref, e.getMessage() );
+                    }
+                    return null;
+                }
+            } );
         }
 
-        InputStream in = null;
-        try
+        if ( tasks.size() > 1 && parallelism > 1 )
         {
-            in = transfer.openInputStream();
-            return new MavenXpp3Reader().read( in );
+            final ExecutorService executor = new ForkJoinPool( Math.min( parallelism, tasks.size() ) );
+            try
+            {
+                for ( final Future<Void> future : executor.invokeAll( tasks ) )
+                {
+                    future.get();
+                }
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch ( final ExecutionException e )
+            {
+                // The tasks do not throw checked exceptions.
+                logger.debug( "Unable to prefetch remote POMs", e.getCause() );
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
         }
-        catch ( final IOException | XmlPullParserException e )
+        else
         {
-            throw new ManipulationException( "Failed to build model for POM: %s.\n--> %s", e, ref, e.getMessage() );
+            for ( final Callable<Void> task : tasks )
+            {
+                try
+                {
+                    task.call();
+                }
+                catch ( final Exception e )
+                {
+                    logger.debug( "Unable to prefetch remote POMs", e );
+                }
+            }
         }
-        finally
+
+        logger.debug( "Prefetched remote POMs {}", remotePoms.keySet() );
+    }
+
+
+    /**
+     * Read the raw model (equivalent to the pom file on disk) from a given GAV. The model is only parsed once per
+     * session ; each call returns a copy which the caller may modify.
+     *
+     * @param ref the ProjectVersion to read.
+     * @return the Maven Model for the GAV
+     * @throws ManipulationException if an error occurs.
+     */
+    public Model resolveRawModel( final ProjectVersionRef ref )
+                    throws ManipulationException
+    {
+        final RemotePom pom = remotePom( ref );
+
+        synchronized ( pom )
         {
-            closeQuietly( in );
+            if ( pom.model == null )
+            {
+                Transfer transfer;
+                try
+                {
+                    transfer = resolvePom( ref );
+                }
+                catch ( final TransferException e )
+                {
+                    throw new ManipulationException( "Failed to resolve POM: %s.\n--> %s", e, ref, e.getMessage() );
+                }
+                if ( transfer == null )
+                {
+                    throw new ManipulationException( "Failed to resolve POM: " + ref.asPomArtifact() );
+                }
+
+                InputStream in = null;
+                try
+                {
+                    in = transfer.openInputStream();
+                    pom.model = new MavenXpp3Reader().read( in );
+                }
+                catch ( final IOException | XmlPullParserException e )
+                {
+                    throw new ManipulationException( "Failed to build model for POM: %s.\n--> %s", e, ref,
+                                                     e.getMessage() );
+                }
+                finally
+                {
+                    closeQuietly( in );
+                }
+            }
+            return pom.model.clone();
         }
     }
 
@@ -159,10 +287,21 @@ public class ModelIO
     {
         logger.debug( "Resolving dependency management GAV: " + ref );
 
+        final Map<ArtifactRef, String> streamed = streamManagedDependencies( ref );
+        if ( streamed != null )
+        {
+            if ( streamed.isEmpty() )
+            {
+                logger.warn( "Attempting to align to a BOM that does not have a dependencyManagement section" );
+            }
+            logger.debug( "Added {} version overrides from {}", streamed.size(), ref );
+            return streamed;
+        }
+
         final Map<ArtifactRef, String> versionOverrides = new LinkedHashMap<>();
         try
         {
-            final MavenPomView pomView = galleyWrapper.readPomView( ref );
+            final MavenPomView pomView = readPomView( ref );
 
             // TODO: active profiles!
             final List<DependencyView> deps = pomView.getAllManagedDependencies();
@@ -233,29 +372,11 @@ public class ModelIO
         logger.debug( "Resolving remote {} POM: {}", type, ref );
 
         final Set<Plugin> pluginOverrides = new HashSet<>();
-        final Map<ProjectRef, ProjectVersionRef> pluginOverridesPomView = new HashMap<>();
         final Model m = resolveRawModel( ref );
-
-        try
-        {
-            final MavenPomView pomView = galleyWrapper.readPomView( ref );
-            final List<PluginView> deps;
-            if (type == PluginType.PluginMgmt )
-            {
-                deps = pomView.getAllManagedBuildPlugins();
-            }
-            else
-            {
-                deps = pomView.getAllBuildPlugins();
-            }
-            for ( final PluginView p : deps )
-            {
-                pluginOverridesPomView.put( p.asProjectRef(), p.asProjectVersionRef() );
-            }
-        }
-        catch ( GalleyMavenException e )
+        Map<ProjectRef, ProjectVersionRef> pluginOverridesPomView = streamPlugins( type, ref );
+        if ( pluginOverridesPomView == null )
         {
-            throw new ManipulationException( "Unable to resolve: %s", e, ref );
+            pluginOverridesPomView = readPlugins( type, ref );
         }
 
         logger.debug( "Found pluginOverridesResolvedVersions {} ", pluginOverridesPomView );
@@ -360,6 +481,34 @@ public class ModelIO
         return pluginOverrides;
     }
 
+    private Map<ProjectRef, ProjectVersionRef> readPlugins( final PluginType type, final ProjectVersionRef ref )
+                    throws ManipulationException
+    {
+        final Map<ProjectRef, ProjectVersionRef> pluginOverridesPomView = new HashMap<>();
+        try
+        {
+            final MavenPomView pomView = readPomView( ref );
+            final List<PluginView> deps;
+            if (type == PluginType.PluginMgmt )
+            {
+                deps = pomView.getAllManagedBuildPlugins();
+            }
+            else
+            {
+                deps = pomView.getAllBuildPlugins();
+            }
+            for ( final PluginView p : deps )
+            {
+                pluginOverridesPomView.put( p.asProjectRef(), p.asProjectVersionRef() );
+            }
+        }
+        catch ( GalleyMavenException e )
+        {
+            throw new ManipulationException( "Unable to resolve: %s", e, ref );
+        }
+        return pluginOverridesPomView;
+    }
+
     /**
      * Recursively process the DOM elements to inline any property values from the model.
      * @param userProperties
@@ -414,4 +563,346 @@ public class ModelIO
         }
         return result;
     }
+
+    /**
+     * Streams the managed dependencies of a remote POM, its parents and any BOMs it imports ; this is equivalent to
+     * {@link MavenPomView#getAllManagedDependencies()} but avoids building and querying a DOM of the whole chain.
+     *
+     * @param ref the POM to read.
+     * @return the overrides in the same order as MavenPomView would return them, or null if the POMs can't be
+     * streamed (e.g. an expression can't be resolved) and the MavenPomView should be used instead.
+     */
+    private Map<ArtifactRef, String> streamManagedDependencies( final ProjectVersionRef ref )
+    {
+        final Map<ArtifactRef, String> result = new LinkedHashMap<>();
+        final Set<String> seen = new HashSet<>();
+        final Set<ProjectVersionRef> visited = new HashSet<>();
+
+        visited.add( ref );
+        return streamManagedDependencies( ref, result, seen, visited ) ? result : null;
+    }
+
+    private boolean streamManagedDependencies( final ProjectVersionRef ref, final Map<ArtifactRef, String> result,
+                                               final Set<String> seen, final Set<ProjectVersionRef> visited )
+    {
+        final List<StreamingPomReader> chain = streamChain( ref );
+        if ( chain == null )
+        {
+            return false;
+        }
+
+        final List<ProjectVersionRef> boms = new ArrayList<>();
+        try
+        {
+            for ( final StreamingPomReader pom : chain )
+            {
+                for ( final StreamingPomReader.Entry dep : pom.getManagedDependencies() )
+                {
+                    final String groupId = interpolate( dep.groupId, chain );
+                    final String artifactId = interpolate( dep.artifactId, chain );
+                    final String version = interpolate( dep.version, chain );
+
+                    if ( "import".equals( dep.scope ) )
+                    {
+                        if ( "pom".equals( dep.type ) )
+                        {
+                            if ( groupId == null || artifactId == null || version == null )
+                            {
+                                return false;
+                            }
+                            boms.add( new SimpleProjectVersionRef( groupId, artifactId, version ) );
+                        }
+                        continue;
+                    }
+
+                    final String type = dep.type == null ? "jar" : interpolate( dep.type, chain );
+                    final String classifier = dep.classifier == null ? null : interpolate( dep.classifier, chain );
+
+                    if ( groupId == null || artifactId == null || version == null || type == null || (
+                                    dep.classifier != null && classifier == null ) )
+                    {
+                        return false;
+                    }
+                    // As MavenPomView, the first declaration of each groupId:artifactId:type:classifier wins.
+                    if ( seen.add( groupId + ':' + artifactId + ':' + type + ':' + classifier ) )
+                    {
+                        result.put( new SimpleArtifactRef( new SimpleProjectVersionRef( groupId, artifactId, version ),
+                                                           type, classifier ), version );
+                    }
+                }
+            }
+        }
+        catch ( final InvalidRefException | InvalidVersionSpecificationException e )
+        {
+            logger.debug( "Unable to stream {} : {}", ref, e.getMessage() );
+            return false;
+        }
+
+        for ( final ProjectVersionRef bom : boms )
+        {
+            if ( visited.add( bom ) && !streamManagedDependencies( bom, result, seen, visited ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Streams the build plugins or managed plugins of a remote POM and its parents ; this is equivalent to reading
+     * {@link MavenPomView#getAllBuildPlugins()} or {@link MavenPomView#getAllManagedBuildPlugins()} into a map.
+     *
+     * @return the plugin versions, or null if the POMs can't be streamed and the MavenPomView should be used instead.
+     */
+    private Map<ProjectRef, ProjectVersionRef> streamPlugins( final PluginType type, final ProjectVersionRef ref )
+    {
+        final List<StreamingPomReader> chain = streamChain( ref );
+        if ( chain == null )
+        {
+            return null;
+        }
+
+        final Map<ProjectRef, ProjectVersionRef> result = new HashMap<>();
+        try
+        {
+            for ( final StreamingPomReader pom : chain )
+            {
+                for ( final StreamingPomReader.Entry plugin : type == PluginType.PluginMgmt ?
+                                pom.getManagedPlugins() :
+                                pom.getPlugins() )
+                {
+                    final String groupId =
+                                    plugin.groupId == null ? DEFAULT_PLUGIN_GROUPID : interpolate( plugin.groupId, chain );
+                    final String artifactId = interpolate( plugin.artifactId, chain );
+                    final String version = interpolate( plugin.version, chain );
+
+                    // Plugins without a version would need the Maven plugin defaults applied.
+                    if ( groupId == null || artifactId == null || version == null )
+                    {
+                        return null;
+                    }
+                    result.put( new SimpleProjectRef( groupId, artifactId ),
+                                new SimpleProjectVersionRef( groupId, artifactId, version ) );
+                }
+            }
+        }
+        catch ( final InvalidRefException | InvalidVersionSpecificationException e )
+        {
+            logger.debug( "Unable to stream {} : {}", ref, e.getMessage() );
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * @return the POM followed by its parents, or null if any of them can't be resolved or read.
+     */
+    private List<StreamingPomReader> streamChain( final ProjectVersionRef ref )
+    {
+        final List<StreamingPomReader> chain = new ArrayList<>();
+        ProjectVersionRef current = ref;
+
+        while ( current != null )
+        {
+            final StreamingPomReader pom = readStream( current );
+            if ( pom == null || chain.size() > MAX_PARENT_DEPTH )
+            {
+                return null;
+            }
+            chain.add( pom );
+
+            current = null;
+            if ( pom.hasParent() )
+            {
+                final String groupId = pom.getValue( "parent.groupId" );
+                final String artifactId = pom.getValue( "parent.artifactId" );
+                final String version = pom.getValue( "parent.version" );
+
+                if ( groupId == null || artifactId == null || version == null || groupId.contains( "${" )
+                                || artifactId.contains( "${" ) || version.contains( "${" ) )
+                {
+                    return null;
+                }
+                try
+                {
+                    current = new SimpleProjectVersionRef( groupId, artifactId, version );
+                }
+                catch ( final InvalidRefException | InvalidVersionSpecificationException e )
+                {
+                    return null;
+                }
+            }
+        }
+        return chain;
+    }
+
+    private StreamingPomReader readStream( final ProjectVersionRef ref )
+    {
+        final RemotePom pom = remotePom( ref );
+        synchronized ( pom )
+        {
+            if ( pom.stream == null )
+            {
+                InputStream in = null;
+                try
+                {
+                    final Transfer transfer = resolvePom( ref );
+                    if ( transfer == null )
+                    {
+                        return null;
+                    }
+                    in = transfer.openInputStream();
+                    pom.stream = new StreamingPomReader( in );
+                }
+                catch ( final TransferException | IOException | XMLStreamException e )
+                {
+                    logger.debug( "Unable to stream {} : {}", ref, e.getMessage() );
+                    return null;
+                }
+                finally
+                {
+                    closeQuietly( in );
+                }
+            }
+            return pom.stream;
+        }
+    }
+
+    /**
+     * Resolves the expressions in a value against a POM inheritance chain in the same way as MavenPomView ; values
+     * of the POM (e.g. <code>project.version</code>) are taken from the nearest POM defining them, followed by the
+     * properties.
+     *
+     * @return the resolved value (which may be null if the value is), or null if an expression can't be resolved.
+     */
+    private static String interpolate( final String value, final List<StreamingPomReader> chain )
+    {
+        return interpolate( value, chain, 0 );
+    }
+
+    private static String interpolate( final String value, final List<StreamingPomReader> chain, final int depth )
+    {
+        if ( value == null || depth > MAX_INTERPOLATION_DEPTH )
+        {
+            return null;
+        }
+
+        int start = value.indexOf( "${" );
+        if ( start < 0 )
+        {
+            return value;
+        }
+
+        final StringBuilder result = new StringBuilder( value.length() );
+        int position = 0;
+        while ( start >= 0 )
+        {
+            final int end = value.indexOf( '}', start );
+            if ( end < 0 )
+            {
+                return null;
+            }
+            final String resolved = interpolate( lookup( value.substring( start + 2, end ), chain ), chain, depth + 1 );
+            if ( resolved == null )
+            {
+                return null;
+            }
+            result.append( value, position, start ).append( resolved );
+            position = end + 1;
+            start = value.indexOf( "${", position );
+        }
+        return result.append( value, position, value.length() ).toString();
+    }
+
+    private static String lookup( final String key, final List<StreamingPomReader> chain )
+    {
+        final String path;
+        if ( key.startsWith( "project." ) )
+        {
+            path = key.substring( "project.".length() );
+        }
+        else if ( key.startsWith( "pom." ) )
+        {
+            path = key.substring( "pom.".length() );
+        }
+        else
+        {
+            path = key;
+        }
+
+        for ( final StreamingPomReader pom : chain )
+        {
+            final String value = pom.getValue( path );
+            if ( value != null )
+            {
+                return value;
+            }
+        }
+        for ( final StreamingPomReader pom : chain )
+        {
+            final String value = pom.getProperty( key );
+            if ( value != null )
+            {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private RemotePom remotePom( final ProjectVersionRef ref )
+    {
+        RemotePom pom = remotePoms.get( ref );
+        if ( pom == null )
+        {
+            final RemotePom existing = remotePoms.putIfAbsent( ref, pom = new RemotePom() );
+            if ( existing != null )
+            {
+                pom = existing;
+            }
+        }
+        return pom;
+    }
+
+    private Transfer resolvePom( final ProjectVersionRef ref )
+                    throws TransferException
+    {
+        final RemotePom pom = remotePom( ref );
+        synchronized ( pom )
+        {
+            if ( pom.transfer == null )
+            {
+                pom.transfer = galleyWrapper.resolveArtifact( ref.asPomArtifact() );
+            }
+            return pom.transfer;
+        }
+    }
+
+    private MavenPomView readPomView( final ProjectVersionRef ref )
+                    throws GalleyMavenException
+    {
+        final RemotePom pom = remotePom( ref );
+        synchronized ( pom )
+        {
+            if ( pom.pomView == null )
+            {
+                pom.pomView = galleyWrapper.readPomView( ref );
+            }
+            return pom.pomView;
+        }
+    }
+
+    /**
+     * A remote POM as resolved, parsed into a raw Model, streamed and read into a view ; each is only filled in once it has
+     * been successfully obtained, so that failures are retried (and reported) on the next use.
+     */
+    private static final class RemotePom
+    {
+        private Transfer transfer;
+
+        private Model model;
+
+        private MavenPomView pomView;
+
+        private StreamingPomReader stream;
+    }
 }
@@ -15,7 +15,6 @@
  */
 package org.commonjava.maven.ext.io;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.maven.io.util.DocumentModifier;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.io.ModelWriter;
@@ -24,38 +23,50 @@ import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.util.WriterFactory;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.GAV;
+import org.commonjava.maven.ext.common.model.PomSource;
 import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.model.ReactorIndex;
 import org.commonjava.maven.ext.common.util.ManifestUtils;
-import org.commonjava.maven.galley.maven.parse.PomPeek;
 import org.jdom2.Comment;
 import org.jdom2.Content;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
 import org.jdom2.filter.ContentFilter;
+import org.jdom2.input.SAXBuilder;
 import org.jdom2.output.LineSeparator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-
-import static org.apache.commons.io.IOUtils.closeQuietly;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Utility class used to read raw models for POMs, and rewrite any project POMs that were changed.
@@ -69,60 +80,109 @@ public class PomIO
 
     private static final Logger logger = LoggerFactory.getLogger( PomIO.class );
 
+    /**
+     * User property to configure the number of threads used to read and write POMs. Setting this to 1 disables
+     * concurrent processing.
+     */
+    public static final String PARALLELISM_PROPERTY = "pomParallelism";
+
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * User property to enable writing changed POMs by patching the changed values into the original content,
+     * falling back to a full JDOM rewrite if the changes are structural.
+     */
+    public static final String PATCHING_PROPERTY = "pomPatching";
+
+    /**
+     * Number of threads used to read, parse and write POMs. A value of one processes them sequentially.
+     */
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /**
+     * Whether to attempt to patch simple value changes into the original content rather than rewriting through JDOM.
+     */
+    private boolean patching;
+
+    /**
+     * Canonical serialization of each model as it was read, taken when patching is enabled so that the original does
+     * not need to be parsed again when the POM is written. Keyed by the (identity of the) content it was read from.
+     */
+    private final Map<PomSource, String> originals = new ConcurrentHashMap<>();
+
+    public void setParallelism( final int parallelism )
+    {
+        this.parallelism = parallelism;
+    }
+
+    public void setPatching( final boolean patching )
+    {
+        this.patching = patching;
+    }
 
     public List<Project> parseProject (final File pom) throws ManipulationException
     {
-        final List<PomPeek> peeked = peekAtPomHierarchy(pom);
-        return readModelsForManipulation( pom.getAbsoluteFile(), peeked );
+        final ExecutorService executor = createExecutor();
+        originals.clear();
+        try
+        {
+            final List<PeekedPom> peeked = peekAtPomHierarchy( executor, pom );
+            return readModelsForManipulation( executor, pom.getAbsoluteFile(), peeked );
+        }
+        finally
+        {
+            if ( executor != null )
+            {
+                executor.shutdownNow();
+            }
+        }
     }
 
     /**
      * Read {@link Model} instances by parsing the POM directly. This is useful to escape some post-processing that happens when the
-     * {@link MavenProject#getOriginalModel()} instance is set.
+     * {@link MavenProject#getOriginalModel()} instance is set. The POMs are parsed concurrently (bounded by the configured
+     * parallelism) but the returned list retains the order of the peeked list.
      *
+     * @param executor the executor to parse with ; if null the POMs are parsed sequentially.
      * @param executionRoot the top level pom file.
      * @param peeked a collection of poms resolved from the top level file.
      * @return a collection of Projects
      * @throws ManipulationException if an error occurs.
      */
-    private List<Project> readModelsForManipulation( File executionRoot, final List<PomPeek> peeked )
+    private List<Project> readModelsForManipulation( final ExecutorService executor, File executionRoot,
+                                                     final List<PeekedPom> peeked )
         throws ManipulationException
     {
-        final List<Project> projects = new ArrayList<>();
-        final HashMap<Project, ProjectVersionRef> projectToParent = new HashMap<>(  );
-
-        for ( final PomPeek peek : peeked )
+        final List<Callable<Project>> tasks = new ArrayList<>( peeked.size() );
+        for ( final PeekedPom peekedPom : peeked )
         {
-            final File pom = peek.getPom();
-
-            // Sucks, but we have to brute-force reading in the raw model.
-            // The effective-model building, below, has a tantalizing getRawModel()
-            // method on the result, BUT this seems to return models that have
-            // the plugin versions set inside profiles...so they're not entirely
-            // raw.
-            Model raw = null;
-            InputStream in = null;
-            try
-            {
-                in = new FileInputStream( pom );
-                raw = new MavenXpp3Reader().read( in );
-            }
-            catch ( final IOException | XmlPullParserException e )
+            tasks.add( new Callable<Project>()
             {
-                throw new ManipulationException( "Failed to build model for POM: %s.\n--> %s", e, pom, e.getMessage() );
-            }
-            finally
-            {
-                closeQuietly( in );
-            }
+                @Override
+                public Project call()
+                                throws ManipulationException
+                {
+                    return readModel( peekedPom.source );
+                }
+            } );
+        }
+        final List<Project> parsed = invokeAll( executor, tasks );
 
-            if ( raw == null )
+        final List<Project> projects = new ArrayList<>( parsed.size() );
+        final List<ProjectVersionRef> parentKeys = new ArrayList<>( parsed.size() );
+
+        for ( int i = 0; i < parsed.size(); i++ )
+        {
+            final Project project = parsed.get( i );
+            if ( project == null )
             {
                 continue;
             }
 
-            final Project project = new Project( pom, raw );
-            projectToParent.put( project, peek.getParentKey() );
+            final StreamingPomPeek peek = peeked.get( i ).peek;
+            final PomSource source = project.getPomSource();
+            final File pom = source.getPom();
+
             project.setInheritanceRoot( peek.isInheritanceRoot() );
 
             if ( executionRoot.equals( pom ))
@@ -131,58 +191,80 @@ public class PomIO
                       (project.isInheritanceRoot() ? " and is the inheritance root. ": ""), project, pom );
                 project.setExecutionRoot ();
 
-                try
-                {
-                    if ( FileUtils.readFileToString( pom ).contains( MODIFIED_BY ) )
-                    {
-                        project.setIncrementalPME (true);
-                    }
-                }
-                catch ( final IOException e )
+                if ( source.contains( MODIFIED_BY ) )
                 {
-                    throw new ManipulationException( "Failed to read POM: %s", e, pom );
+                    project.setIncrementalPME (true);
                 }
             }
 
             projects.add( project );
+            parentKeys.add( peek.getParentKey() );
         }
 
-        // Fill out inheritance info for every project we have created.
-        for ( Project p : projects )
+        // Fill out inheritance info for every project we have created. If the parent key refers to something
+        // outside of the hierarchy we'll break the inheritance here.
+        final ReactorIndex index = new ReactorIndex( projects );
+        for ( int i = 0; i < projects.size(); i++ )
         {
-            ProjectVersionRef pvr = projectToParent.get( p );
-            p.setProjectParent( getParent( projects, pvr ) );
+            projects.get( i ).setProjectParent( index.getProject( parentKeys.get( i ) ) );
         }
 
         return projects;
     }
 
-    private Project getParent( List<Project> projects, ProjectVersionRef pvr )
+    private Project readModel( final PomSource source )
+        throws ManipulationException
     {
-        for ( Project p : projects )
+        // Sucks, but we have to brute-force reading in the raw model.
+        // The effective-model building, below, has a tantalizing getRawModel()
+        // method on the result, BUT this seems to return models that have
+        // the plugin versions set inside profiles...so they're not entirely
+        // raw.
+        final Model raw;
+        try
         {
-            if ( p.getKey().equals( pvr ) )
-            {
-                return p;
-            }
+            raw = new MavenXpp3Reader().read( source.openStream() );
         }
-        // If the PVR refers to something outside of the hierarchy we'll break the inheritance here.
-        return null;
+        catch ( final IOException | XmlPullParserException e )
+        {
+            throw new ManipulationException( "Failed to build model for POM: %s.\n--> %s", e, source.getPom(),
+                                             e.getMessage() );
+        }
+
+        return raw == null ? null : newProject( source, raw );
+    }
+
+    private Project newProject( final PomSource source, final Model raw )
+        throws ManipulationException
+    {
+        if ( patching )
+        {
+            originals.put( source, PomPatcher.snapshot( raw ) );
+        }
+        return new Project( source, raw );
     }
 
     /**
      * For any project listed as changed (tracked by GA in the session), write the modified model out to disk.
      * Uses JDOM {@link ModelWriter} and {@link MavenJDOMWriter} to preserve as much formatting as possible.
-     *
+     * <p>
+     * The new content of every POM is generated (concurrently, bounded by the configured parallelism) before any
+     * file is touched. POMs whose new content is byte-identical to the original are skipped. Each remaining POM is
+     * then written to a temporary file alongside it and renamed into place, so that a failure does not leave the
+     * reactor partially rewritten.
      *
      * @param gav GAV to fill in.
      * @param changed the modified Projects to write out.
+     * @return the Projects whose POM was rewritten.
      * @throws ManipulationException if an error occurs.
      */
-    public void rewritePOMs( GAV gav, final Set<Project> changed )
+    public Set<Project> rewritePOMs( GAV gav, final Set<Project> changed )
         throws ManipulationException
     {
-        for ( final Project project : changed )
+        final List<Project> projects = new ArrayList<>( changed );
+        final List<Callable<List<PomSource>>> tasks = new ArrayList<>( projects.size() );
+
+        for ( final Project project : projects )
         {
             if ( project.isExecutionRoot() )
             {
@@ -191,28 +273,245 @@ public class PomIO
                 gav.setArtifactId( m.getArtifactId() == null ? project.getArtifactId() : m.getArtifactId() );
                 gav.setVersion( m.getVersion() == null ? project.getVersion() : m.getVersion() );
             }
-            logger.debug( String.format( "%s modified! Rewriting.", project ) );
-            File pom = project.getPom();
 
-            final Model model = project.getModel();
-            logger.trace( "Rewriting: " + model.toString() + " in place of: " + project.getId()
-                         + "\n       to POM: " + pom );
+            tasks.add( new Callable<List<PomSource>>()
+            {
+                @Override
+                public List<PomSource> call()
+                                throws ManipulationException
+                {
+                    return render( project );
+                }
+            } );
+        }
+
+        final List<List<PomSource>> rendered;
+        final ExecutorService executor = createExecutor();
+        try
+        {
+            rendered = invokeAll( executor, tasks );
+        }
+        finally
+        {
+            if ( executor != null )
+            {
+                executor.shutdownNow();
+            }
+        }
+
+        final Set<Project> written = new HashSet<>();
+        final List<PomSource> pending = new ArrayList<>();
+        for ( int i = 0; i < projects.size(); i++ )
+        {
+            if ( rendered.get( i ).isEmpty() )
+            {
+                logger.debug( "{} is unchanged ; not rewriting.", projects.get( i ) );
+            }
+            else
+            {
+                written.add( projects.get( i ) );
+                pending.addAll( rendered.get( i ) );
+            }
+        }
+        writeAtomically( pending );
+
+        for ( int i = 0; i < projects.size(); i++ )
+        {
+            for ( final PomSource source : rendered.get( i ) )
+            {
+                if ( source.getPom().equals( projects.get( i ).getPom() ) )
+                {
+                    projects.get( i ).setPomSource( source );
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Generates the new content for the project's POM.
+     *
+     * @return the content for the project POM ; possibly followed by the content for pom.xml if the project
+     * was read from interpolated-pom.xml. Files whose content would not change are omitted.
+     */
+    private List<PomSource> render( final Project project )
+        throws ManipulationException
+    {
+        logger.debug( String.format( "%s modified! Rewriting.", project ) );
+        File pom = project.getPom();
+
+        final Model model = project.getModel();
+        logger.trace( "Rewriting: " + model.toString() + " in place of: " + project.getId()
+                     + "\n       to POM: " + pom );
+
+        final List<PomSource> result = new ArrayList<>( 2 );
+        addIfChanged( result, render( project, pom, model ) );
+
+        // this happens with integration tests!
+        // This is a total hack, but the alternative seems to be adding complexity through a custom model processor.
+        if ( pom.getName()
+                        .equals( "interpolated-pom.xml" ) )
+        {
+            final File dir = pom.getParentFile();
+            pom = dir == null ? new File( "pom.xml" ) : new File( dir, "pom.xml" );
+
+            addIfChanged( result, render( project, pom, model ) );
+        }
+        return result;
+    }
 
-            write( project, pom, model );
+    private static void addIfChanged( final List<PomSource> result, final PomSource updated )
+    {
+        if ( updated != null )
+        {
+            result.add( updated );
+        }
+    }
+
+    /**
+     * Writes each of the sources to a temporary file in the same directory as its target, and only once all of
+     * them have been written renames them over their targets. Each target is first linked (or copied) to a backup
+     * so that, should any rename fail, those already replaced are restored and no POM is left rewritten.
+     */
+    void writeAtomically( final List<PomSource> sources )
+        throws ManipulationException
+    {
+        final List<Path> staged = new ArrayList<>( sources.size() );
+        final List<Path> backups = new ArrayList<>( sources.size() );
+        int moved = 0;
 
-            // this happens with integration tests!
-            // This is a total hack, but the alternative seems to be adding complexity through a custom model processor.
-            if ( pom.getName()
-                            .equals( "interpolated-pom.xml" ) )
+        try
+        {
+            for ( final PomSource source : sources )
+            {
+                final Path target = source.getPom().getAbsoluteFile().toPath();
+                final Path temp = Files.createTempFile( target.getParent(), target.getFileName().toString(), ".tmp" );
+                staged.add( temp );
+
+                Files.write( temp, source.getContent() );
+                copyPermissions( target, temp );
+            }
+
+            for ( final PomSource source : sources )
             {
-                final File dir = pom.getParentFile();
-                pom = dir == null ? new File( "pom.xml" ) : new File( dir, "pom.xml" );
+                backups.add( backup( source.getPom().getAbsoluteFile().toPath() ) );
+            }
+
+            for ( ; moved < sources.size(); moved++ )
+            {
+                move( staged.get( moved ), sources.get( moved ).getPom().getAbsoluteFile().toPath() );
+            }
+        }
+        catch ( final IOException e )
+        {
+            for ( int i = 0; i < moved; i++ )
+            {
+                restore( backups.get( i ), sources.get( i ).getPom().getAbsoluteFile().toPath() );
+            }
+            for ( int i = moved; i < staged.size(); i++ )
+            {
+                deleteQuietly( staged.get( i ) );
+            }
+            throw new ManipulationException( "Failed to write POMs for rewrite. Reason: %s", e, e.getMessage() );
+        }
+        finally
+        {
+            for ( final Path backup : backups )
+            {
+                if ( backup != null )
+                {
+                    deleteQuietly( backup );
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a hard link to (or failing that a copy of) the target, or null if there is no file to preserve.
+     */
+    private static Path backup( final Path target )
+        throws IOException
+    {
+        if ( !Files.isRegularFile( target ) )
+        {
+            return null;
+        }
+
+        final Path backup = Files.createTempFile( target.getParent(), target.getFileName().toString(), ".bak" );
+        Files.delete( backup );
+        try
+        {
+            Files.createLink( backup, target );
+        }
+        catch ( final IOException | UnsupportedOperationException e )
+        {
+            Files.copy( target, backup, StandardCopyOption.COPY_ATTRIBUTES );
+        }
+        return backup;
+    }
 
-                write( project, pom, model );
+    private static void restore( final Path backup, final Path target )
+    {
+        try
+        {
+            if ( backup == null )
+            {
+                Files.deleteIfExists( target );
             }
+            else
+            {
+                move( backup, target );
+            }
+        }
+        catch ( final IOException e )
+        {
+            logger.error( "Unable to restore {} from {}: {}", target, backup, e.getMessage() );
+        }
+    }
+
+    private static void move( final Path source, final Path target )
+        throws IOException
+    {
+        try
+        {
+            Files.move( source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+        }
+        catch ( final AtomicMoveNotSupportedException e )
+        {
+            Files.move( source, target, StandardCopyOption.REPLACE_EXISTING );
+        }
+    }
+
+    private static void deleteQuietly( final Path path )
+    {
+        try
+        {
+            Files.deleteIfExists( path );
+        }
+        catch ( final IOException ignored )
+        {
+            logger.debug( "Unable to remove temporary file {}", path );
         }
     }
 
+    /**
+     * Temporary files are created with restricted permissions ; keep those of the file being replaced.
+     */
+    private static void copyPermissions( final Path from, final Path to )
+        throws IOException
+    {
+        if ( Files.exists( from ) )
+        {
+            try
+            {
+                Files.setPosixFilePermissions( to, Files.getPosixFilePermissions( from ) );
+            }
+            catch ( final UnsupportedOperationException e )
+            {
+                logger.trace( "Unable to copy file permissions to {}", to );
+            }
+        }
+    }
 
     /**
      * Writes out the Model to the selected target file.
@@ -234,22 +533,48 @@ public class PomIO
         }
     }
 
-    private void write( final Project project, final File pom, final Model model )
+    /**
+     * Serializes the model using the original content of the POM as a template. If enabled, simple value changes
+     * are patched directly into the original content (see {@link PomPatcher}).
+     *
+     * @return the new content or null if it is identical to the original.
+     */
+    private PomSource render( final Project project, final File pom, final Model model )
         throws ManipulationException
     {
+        // Reuse the content read during parsing where possible ; the special case of
+        // writing interpolated-pom.xml to pom.xml will need a fresh read.
+        PomSource source = project.getPomSource();
+        if ( source == null || !pom.equals( source.getPom() ) )
+        {
+            source = PomSource.read( pom );
+        }
+
+        // The execution root always receives the modified-by comment so it is left to JDOM.
+        if ( patching && !project.isExecutionRoot() )
+        {
+            final byte[] patched = PomPatcher.patch( source, originals.get( source ), model );
+            if ( patched != null )
+            {
+                final PomSource updated = new PomSource( pom, patched );
+                return updated.hasSameContent( source ) ? null : updated;
+            }
+            logger.debug( "Unable to patch {} ; rewriting with JDOM.", pom );
+        }
+
         try
         {
             final String manifestInformation = project.isInheritanceRoot() ? ManifestUtils.getManifestInformation() : null;
 
             MavenJDOMWriter mjw = new MavenJDOMWriter( model );
 
-            // We possibly could store the EOL type in the Project when we first read
-            // the file but we would then have to do a dual read, then write as opposed
-            // to a read, then read + write now.
-            LineSeparator ls = determineEOL( pom );
-            mjw.setLineSeparator( ls );
+            mjw.setLineSeparator( determineEOL( source ) );
 
-            mjw.write( model, pom, new DocumentModifier()
+            final Document doc = new SAXBuilder().build( source.openStream(), pom.toURI().toString() );
+            final ByteArrayOutputStream out = new ByteArrayOutputStream( source.getContent().length );
+            final Writer writer = WriterFactory.newWriter( out, mjw.getEncoding() );
+
+            mjw.write( model, doc, writer, new DocumentModifier()
             {
                 @Override
                 public void postProcess( final Document doc )
@@ -275,6 +600,12 @@ public class PomIO
                     }
                 }
             });
+            writer.flush();
+
+            final PomSource updated = new PomSource( pom, out.toByteArray() );
+
+            // Avoid touching the file if the serialized model is byte-identical to the original.
+            return updated.hasSameContent( source ) ? null : updated;
         }
         catch ( final IOException e )
         {
@@ -286,115 +617,114 @@ public class PomIO
         }
     }
 
-    private List<PomPeek> peekAtPomHierarchy(final File topPom)
+    /**
+     * Discovers the POMs reachable from the top level POM through module and parent references. Each level of the
+     * module tree is read and peeked concurrently ; the results are then merged in order so that the discovered list
+     * matches a sequential breadth-first walk.
+     */
+    private List<PeekedPom> peekAtPomHierarchy( final ExecutorService executor, final File topPom )
         throws ManipulationException
     {
-        final List<PomPeek> peeked = new ArrayList<>();
+        final List<PeekedPom> peeked = new ArrayList<>();
 
         try
         {
-            final LinkedList<File> pendingPoms = new LinkedList<>();
-            pendingPoms.add( topPom.getCanonicalFile() );
-
+            final File canonicalTop = topPom.getCanonicalFile();
             final String topDir = topPom.getAbsoluteFile().getParentFile().getCanonicalPath();
 
-            final Set<File> seen = new HashSet<>();
+            // Every POM that has been queued for peeking.
+            final Set<File> discovered = new HashSet<>();
+            discovered.add( canonicalTop );
+
+            List<File> pendingPoms = Collections.singletonList( canonicalTop );
 
             File topLevelParent = topPom;
 
             while ( !pendingPoms.isEmpty() )
             {
-                final File pom = pendingPoms.removeFirst();
-                seen.add( pom );
+                final List<Callable<PeekedPom>> tasks = new ArrayList<>( pendingPoms.size() );
+                for ( final File pom : pendingPoms )
+                {
+                    tasks.add( new Callable<PeekedPom>()
+                    {
+                        @Override
+                        public PeekedPom call()
+                                        throws ManipulationException
+                        {
+                            return peek( pom );
+                        }
+                    } );
+                }
 
-                logger.debug( "PEEK: " + pom );
+                final List<File> nextPoms = new ArrayList<>();
 
-                final PomPeek peek = new PomPeek( pom );
-                final ProjectVersionRef key = peek.getKey();
-                if ( key != null )
+                for ( final PeekedPom pp : invokeAll( executor, tasks ) )
                 {
-                    peeked.add( peek );
+                    final File pom = pp.source.getPom();
 
-                    final File dir = pom.getParentFile();
-
-                    final String relPath = peek.getParentRelativePath();
-                    if ( relPath != null )
+                    if ( pp.peek.getKey() == null )
                     {
-                        logger.debug( "Found parent relativePath: " + relPath + " in pom: " + pom );
-                        File parent = new File( dir, relPath );
-                        if ( parent.isDirectory() )
-                        {
-                            parent = new File( parent, "pom.xml" );
-                        }
+                        logger.debug( "Skipping " + pom + " as its a template file." );
+                        continue;
+                    }
+                    peeked.add( pp );
 
-                        parent = parent.getCanonicalFile();
-                        if ( parent.getParentFile()
-                                   .getCanonicalPath()
-                                   .startsWith( topDir ) && parent.exists() && !seen.contains( parent )
-                            && !pendingPoms.contains( parent ) )
+                    if ( pp.peek.getParentRelativePath() != null )
+                    {
+                        if ( pp.parent != null && pp.parent.getParent().startsWith( topDir ) && discovered.add( pp.parent ) )
                         {
-                            topLevelParent = parent;
-                            logger.debug( "Possible top level parent " + parent );
-                            pendingPoms.add( parent );
+                            topLevelParent = pp.parent;
+                            logger.debug( "Possible top level parent " + pp.parent );
+                            nextPoms.add( pp.parent );
                         }
                         else
                         {
-                            logger.debug( "Skipping reference to non-existent parent relativePath: '" + relPath
-                                + "' in: " + pom );
+                            logger.debug( "Skipping reference to non-existent parent relativePath: '"
+                                                          + pp.peek.getParentRelativePath() + "' in: " + pom );
                         }
                     }
 
-                    final Set<String> modules = peek.getModules();
-                    if ( modules != null && !modules.isEmpty() )
+                    for ( final Map.Entry<String, File> module : pp.modules.entrySet() )
                     {
-                        for ( final String module : modules )
-                        {
-                            logger.debug( "Found module: " + module + " in pom: " + pom );
+                        final File modPom = module.getValue();
 
-                            File modPom = new File( dir, module );
-                            if ( modPom.isDirectory() )
-                            {
-                                modPom = new File( modPom, "pom.xml" );
-                            }
-
-                            if ( modPom.exists() && !seen.contains( modPom )
-                                && !pendingPoms.contains( modPom ) )
-                            {
-                                pendingPoms.addLast( modPom );
-                            }
-                            else
-                            {
-                                logger.debug( "Skipping reference to non-existent module: '" + module + "' in: " + pom );
-                            }
+                        if ( modPom != null && discovered.add( modPom ) )
+                        {
+                            nextPoms.add( modPom );
+                        }
+                        else
+                        {
+                            logger.debug( "Skipping reference to non-existent module: '" + module.getKey() + "' in: " + pom );
                         }
                     }
                 }
-                else
-                {
-                    logger.debug( "Skipping " + pom + " as its a template file." );
-                }
+
+                pendingPoms = nextPoms;
             }
 
-            final HashSet<ProjectVersionRef> projectrefs = new HashSet<>();
+            final Set<ProjectRef> projectrefs = new HashSet<>();
 
-            for ( final PomPeek p : peeked )
+            for ( final PeekedPom pp : peeked )
             {
-                projectrefs.add( p.getKey() );
+                final StreamingPomPeek p = pp.peek;
+                projectrefs.add( new SimpleProjectRef( p.getKey().getGroupId(), p.getKey().getArtifactId() ) );
 
-                if ( p.getPom()
+                if ( pp.source.getPom()
                       .equals( topLevelParent ) )
                 {
-                    logger.debug( "Setting top level parent to " + p.getPom() + " :: " + p.getKey() );
+                    logger.debug( "Setting top level parent to " + pp.source.getPom() + " :: " + p.getKey() );
                     p.setInheritanceRoot( true );
                 }
             }
 
-            for ( final PomPeek p : peeked )
+            for ( final PeekedPom pp : peeked )
             {
-                if ( p.getParentKey() == null ||
-                     ! seenThisParent(projectrefs, p.getParentKey()))
+                final StreamingPomPeek p = pp.peek;
+                if ( p.getParentKey() == null || !projectrefs.contains(
+                                new SimpleProjectRef( p.getParentKey().getGroupId(),
+                                                      p.getParentKey().getArtifactId() ) ) )
                 {
-                    logger.debug( "Found a standalone pom " + p.getPom() + " :: " + p.getKey() );
+                    logger.debug( "Found a standalone pom " + pp.source.getPom() + " :: " + p.getKey() );
                     p.setInheritanceRoot( true );
                 }
             }
@@ -408,57 +738,173 @@ public class PomIO
     }
 
     /**
-     * Search the list of project references to establish if this parent reference exists in them. This
-     * determines whether the module is inheriting something inside the project or an external reference.
-
-     * @param projectrefs
-     * @param parentKey
-     * @return
+     * Reads and peeks at a single POM, resolving the locations of its parent and modules. This performs
+     * all of the file system access for the POM so that it may be run concurrently with its siblings.
      */
-    private boolean seenThisParent(final HashSet<ProjectVersionRef> projectrefs, final ProjectVersionRef parentKey)
+    private PeekedPom peek( final File pom )
+        throws ManipulationException
     {
-        for (final ProjectVersionRef p : projectrefs)
+        logger.debug( "PEEK: " + pom );
+
+        final PomSource source = PomSource.read( pom );
+        final StreamingPomPeek peek = new StreamingPomPeek( source );
+
+        File parent = null;
+        final Map<String, File> modules = new LinkedHashMap<>();
+
+        if ( peek.getKey() != null )
         {
-            if ( p.versionlessEquals( parentKey ))
+            final File dir = pom.getParentFile();
+
+            try
+            {
+                final String relPath = peek.getParentRelativePath();
+                if ( relPath != null )
+                {
+                    logger.debug( "Found parent relativePath: " + relPath + " in pom: " + pom );
+                    parent = new File( dir, relPath );
+                    if ( parent.isDirectory() )
+                    {
+                        parent = new File( parent, "pom.xml" );
+                    }
+                    parent = parent.exists() ? parent.getCanonicalFile() : null;
+                }
+
+                final Set<String> peekedModules = peek.getModules();
+                if ( peekedModules != null )
+                {
+                    for ( final String module : peekedModules )
+                    {
+                        logger.debug( "Found module: " + module + " in pom: " + pom );
+
+                        File modPom = new File( dir, module );
+                        if ( modPom.isDirectory() )
+                        {
+                            modPom = new File( modPom, "pom.xml" );
+                        }
+                        // Module paths are kept as written ; only the parent reference is canonicalised.
+                        modules.put( module, modPom.exists() ? modPom : null );
+                    }
+                }
+            }
+            catch ( final IOException e )
             {
-                return true;
+                throw new ManipulationException( "Problem peeking at POMs.", e );
             }
         }
-        return false;
+
+        return new PeekedPom( source, peek, parent, modules );
     }
 
+    private static LineSeparator determineEOL( PomSource source )
+        throws ManipulationException
+    {
+        final String eol = source.getLineSeparator();
+        if ( "\r\n".equals( eol ) )
+        {
+            return LineSeparator.CRNL;
+        }
+        else if ( "\n".equals( eol ) )
+        {
+            return LineSeparator.NL;
+        }
+        else if ( "\r".equals( eol ) )
+        {
+            return LineSeparator.CR;
+        }
+        throw new ManipulationException( "Could not determine end-of-line marker mode" );
+    }
 
-    private static LineSeparator determineEOL( File pom )
+    /**
+     * @return a work-stealing pool bounded by the configured parallelism, or null if POMs should be processed
+     * sequentially.
+     */
+    private ExecutorService createExecutor()
+    {
+        return parallelism > 1 ? new ForkJoinPool( parallelism ) : null;
+    }
+
+    /**
+     * Runs the supplied tasks, returning their results in the same order as the tasks. If no executor is supplied
+     * (or there is only a single task) they are run on the calling thread.
+     */
+    private static <T> List<T> invokeAll( final ExecutorService executor, final List<? extends Callable<T>> tasks )
         throws ManipulationException
     {
-        try (  BufferedInputStream bufferIn = new BufferedInputStream( new FileInputStream( pom ) ) )
+        final List<T> results = new ArrayList<>( tasks.size() );
+
+        try
         {
-            int prev = -1;
-            int ch;
-            while ( ( ch = bufferIn.read() ) != -1 )
+            if ( executor == null || tasks.size() < 2 )
             {
-                if ( ch == '\n' )
+                for ( final Callable<T> task : tasks )
                 {
-                    if ( prev == '\r' )
-                    {
-                        return LineSeparator.CRNL;
-                    }
-                    else
-                    {
-                        return LineSeparator.NL;
-                    }
+                    results.add( task.call() );
                 }
-                else if ( prev == '\r' )
+            }
+            else
+            {
+                for ( final Future<T> future : executor.invokeAll( tasks ) )
                 {
-                    return LineSeparator.CR;
+                    results.add( future.get() );
                 }
-                prev = ch;
             }
-            throw new ManipulationException( "Could not determine end-of-line marker mode" );
         }
-        catch ( IOException ioe )
+        catch ( final ExecutionException e )
+        {
+            throw asManipulationException( e.getCause() );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ManipulationException( "Interrupted while processing POMs", e );
+        }
+        catch ( final Exception e )
+        {
+            throw asManipulationException( e );
+        }
+        return results;
+    }
+
+    private static ManipulationException asManipulationException( final Throwable t )
+    {
+        if ( t instanceof ManipulationException )
+        {
+            return (ManipulationException) t;
+        }
+        else if ( t instanceof RuntimeException )
+        {
+            throw (RuntimeException) t;
+        }
+        else if ( t instanceof Error )
+        {
+            throw (Error) t;
+        }
+        return new ManipulationException( "Problem processing POMs: %s", t, t.getMessage() );
+    }
+
+    /**
+     * Pairs the result of peeking at a POM with the content it was peeked from, so the file is only read once.
+     * Also holds the canonical location of the parent (if a relativePath was found) and the location of each module
+     * as written (null if the module does not exist).
+     */
+    private static final class PeekedPom
+    {
+        private final PomSource source;
+
+        private final StreamingPomPeek peek;
+
+        private final File parent;
+
+        private final Map<String, File> modules;
+
+        private PeekedPom( final PomSource source, final StreamingPomPeek peek, final File parent,
+                           final Map<String, File> modules )
         {
-            throw new ManipulationException( "Could not determine end-of-line marker mode", ioe );
+            this.source = source;
+            this.peek = peek;
+            this.parent = parent;
+            this.modules = modules;
         }
     }
 }
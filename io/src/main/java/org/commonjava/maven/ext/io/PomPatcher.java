@@ -0,0 +1,651 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.PomSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a modified model back to its POM by splicing the changed element values into the original content, rather
+ * than rebuilding the whole document through JDOM. This only handles changes to the text of existing simple elements
+ * (e.g. versions and property values) ; anything else (added or removed elements, attributes, comments within a
+ * changed element) is reported as unpatchable so that the caller can fall back to {@link
+ * org.apache.maven.model.io.jdom.MavenJDOMWriter}.
+ * <p>
+ * Changes are located by serializing both the original and the modified model in canonical form and walking the
+ * two together ; every changed element is identified by its path (including the position amongst siblings of the same
+ * name) which is then used to find the range of that element's text in the original content. Only the elements on the
+ * path to a changed value are tracked while scanning the original content.
+ */
+final class PomPatcher
+{
+    private static final Logger logger = LoggerFactory.getLogger( PomPatcher.class );
+
+    private PomPatcher()
+    {
+    }
+
+    /**
+     * Applies the differences between the original content of the POM and the supplied model to the original
+     * content.
+     *
+     * @param source the original content of the POM.
+     * @param original the {@link #snapshot(Model)} of the model as read from the source, or null to parse the source
+     * again.
+     * @param model the modified model.
+     * @return the patched content (the original buffer if there are no changes), or null if the changes can not be
+     * applied as simple text replacements.
+     * @throws ManipulationException if an error occurs.
+     */
+    static byte[] patch( final PomSource source, final String original, final Model model )
+                    throws ManipulationException
+    {
+        try
+        {
+            final String before =
+                            original == null ? serialize( new MavenXpp3Reader().read( source.openStream() ) ) : original;
+            final String after = serialize( model );
+
+            if ( before.equals( after ) )
+            {
+                return source.getContent();
+            }
+
+            final Map<String, Change> changes = diff( before, after );
+            if ( changes == null )
+            {
+                logger.debug( "Structure of {} has changed ; unable to patch.", source.getPom() );
+                return null;
+            }
+            if ( changes.isEmpty() )
+            {
+                return source.getContent();
+            }
+
+            final String content = new String( source.getContent(), source.getEncoding() );
+            final Map<String, Leaf> targets = locate( content, changes.keySet() );
+            if ( targets == null )
+            {
+                logger.debug( "Unable to scan {} ; unable to patch.", source.getPom() );
+                return null;
+            }
+
+            final List<Replacement> replacements = new ArrayList<>( changes.size() );
+
+            for ( final Map.Entry<String, Change> entry : changes.entrySet() )
+            {
+                final Leaf target = targets.get( entry.getKey() );
+                if ( target == null || !target.simple || !target.text.equals( entry.getValue().was ) )
+                {
+                    logger.debug( "Unable to locate {} in {} ; unable to patch.", entry.getKey(), source.getPom() );
+                    return null;
+                }
+                replacements.add( new Replacement( target, entry.getValue().now ) );
+            }
+
+            // Element contents never overlap so they may be replaced in document order.
+            Collections.sort( replacements, new Comparator<Replacement>()
+            {
+                @Override
+                public int compare( final Replacement o1, final Replacement o2 )
+                {
+                    return Integer.compare( o1.target.start, o2.target.start );
+                }
+            } );
+
+            final StringBuilder patched = new StringBuilder( content.length() + 64 );
+            int last = 0;
+            for ( final Replacement replacement : replacements )
+            {
+                patched.append( content, last, replacement.target.start );
+                escape( replacement.value, patched );
+                last = replacement.target.end;
+            }
+            patched.append( content, last, content.length() );
+
+            return patched.toString().getBytes( source.getEncoding() );
+        }
+        catch ( final IOException | XmlPullParserException e )
+        {
+            throw new ManipulationException( "Failed to patch POM: %s. Reason: %s", e, source.getPom(),
+                                             e.getMessage() );
+        }
+    }
+
+    /**
+     * Takes the canonical serialization of a model before it is modified, for use with {@link #patch(PomSource,
+     * String, Model)}.
+     *
+     * @param model the model as read.
+     * @return the serialization.
+     * @throws ManipulationException if an error occurs.
+     */
+    static String snapshot( final Model model )
+                    throws ManipulationException
+    {
+        try
+        {
+            return serialize( model );
+        }
+        catch ( final IOException e )
+        {
+            throw new ManipulationException( "Failed to serialize model: %s", e, e.getMessage() );
+        }
+    }
+
+    private static String serialize( final Model model )
+                    throws IOException
+    {
+        final StringWriter writer = new StringWriter();
+        new MavenXpp3Writer().write( writer, model );
+        return writer.toString();
+    }
+
+    /**
+     * Walks the canonical serializations of the original and the modified model together. As both are written by
+     * {@link MavenXpp3Writer} every tag must be identical unless the structure has changed ; only the text of
+     * elements without children may differ.
+     *
+     * @return the changed values indexed by element path, or null if the structure differs.
+     */
+    private static Map<String, Change> diff( final String before, final String after )
+    {
+        final Map<String, Change> changes = new HashMap<>();
+        final Deque<Element> stack = new ArrayDeque<>();
+        int i = 0;
+        int j = 0;
+
+        while ( true )
+        {
+            final int bOpen = before.indexOf( '<', i );
+            final int aOpen = after.indexOf( '<', j );
+            if ( bOpen < 0 || aOpen < 0 )
+            {
+                return bOpen == aOpen && stack.isEmpty() ? changes : null;
+            }
+
+            final int bEnd = endOfTag( before, bOpen );
+            final int aEnd = endOfTag( after, aOpen );
+            if ( bEnd < 0 || bEnd - bOpen != aEnd - aOpen || !before.regionMatches( bOpen, after, aOpen,
+                                                                                    bEnd - bOpen + 1 ) )
+            {
+                return null;
+            }
+
+            if ( before.startsWith( "</", bOpen ) )
+            {
+                final Element element = stack.poll();
+                if ( element == null )
+                {
+                    return null;
+                }
+                if ( !element.parent && ( bOpen - element.contentStart != aOpen - element.afterStart
+                                || !before.regionMatches( element.contentStart, after, element.afterStart,
+                                                          bOpen - element.contentStart ) ) )
+                {
+                    final String was = decode( before.subSequence( element.contentStart, bOpen ) );
+                    final String now = decode( after.subSequence( element.afterStart, aOpen ) );
+                    if ( was == null || now == null )
+                    {
+                        return null;
+                    }
+                    if ( !was.trim().equals( now.trim() ) )
+                    {
+                        changes.put( key( stack, element ), new Change( was.trim(), now.trim() ) );
+                    }
+                }
+            }
+            else if ( before.charAt( bOpen + 1 ) != '?' && before.charAt( bOpen + 1 ) != '!' )
+            {
+                final Element parent = stack.peek();
+                final String name = name( before, bOpen, bEnd );
+                final int index = parent == null ? 0 : parent.next( name );
+                if ( parent != null )
+                {
+                    parent.parent = true;
+                }
+                if ( before.charAt( bEnd - 1 ) != '/' )
+                {
+                    final Element element = new Element( name, index, bEnd + 1 );
+                    element.afterStart = aEnd + 1;
+                    stack.push( element );
+                }
+            }
+
+            i = bEnd + 1;
+            j = aEnd + 1;
+        }
+    }
+
+    /**
+     * Finds the location and text of the supplied elements in the original content. Only the elements on the path to
+     * one of those is tracked ; the remainder of the document is just checked to be well nested.
+     *
+     * @return the elements found, indexed by path, or null if the document uses constructs that are not handled (e.g.
+     * a DOCTYPE).
+     */
+    private static Map<String, Leaf> locate( final String xml, final Set<String> wanted )
+    {
+        final Set<String> prefixes = new HashSet<>();
+        for ( final String key : wanted )
+        {
+            for ( int slash = key.indexOf( '/', 1 ); slash > 0; slash = key.indexOf( '/', slash + 1 ) )
+            {
+                prefixes.add( key.substring( 0, slash ) );
+            }
+        }
+
+        final Map<String, Leaf> result = new HashMap<>();
+        final Deque<Element> stack = new ArrayDeque<>();
+        final int length = xml.length();
+        int i = 0;
+
+        while ( i < length )
+        {
+            final int open = xml.indexOf( '<', i );
+            if ( open < 0 )
+            {
+                break;
+            }
+            final Element current = stack.peek();
+            if ( open > i && current != null && current.text != null )
+            {
+                current.text.append( xml, i, open );
+            }
+
+            if ( xml.startsWith( "<!--", open ) )
+            {
+                i = skip( xml, open, "-->" );
+                markComplex( current );
+            }
+            else if ( xml.startsWith( "<![CDATA[", open ) )
+            {
+                i = skip( xml, open, "]]>" );
+                markComplex( current );
+            }
+            else if ( xml.startsWith( "<?", open ) )
+            {
+                i = skip( xml, open, "?>" );
+                markComplex( current );
+            }
+            else if ( xml.startsWith( "<!", open ) )
+            {
+                return null;
+            }
+            else if ( xml.startsWith( "</", open ) )
+            {
+                final Element element = stack.poll();
+                if ( element == null )
+                {
+                    return null;
+                }
+                if ( element.text != null && !element.parent )
+                {
+                    final String text = decode( element.text );
+                    result.put( element.key, new Leaf( text == null ? "" : text.trim(), element.contentStart, open,
+                                                       element.simple && text != null ) );
+                }
+                i = skip( xml, open, ">" );
+            }
+            else
+            {
+                final int end = endOfTag( xml, open );
+                if ( end < 0 )
+                {
+                    return null;
+                }
+
+                final String name = name( xml, open, end );
+                final Element element;
+                if ( current == null )
+                {
+                    element = new Element( name, 0, end + 1 );
+                    element.key = '/' + name;
+                }
+                else
+                {
+                    current.parent = true;
+                    final boolean tracked = current.key != null && prefixes.contains( current.key );
+                    element = new Element( name, tracked ? current.next( name ) : 0, end + 1 );
+                    if ( tracked )
+                    {
+                        element.key = current.key + '/' + name + '[' + element.index + ']';
+                    }
+                }
+                if ( element.key != null && wanted.contains( element.key ) )
+                {
+                    element.text = new StringBuilder();
+                }
+
+                if ( xml.charAt( end - 1 ) == '/' )
+                {
+                    if ( element.text != null )
+                    {
+                        result.put( element.key, new Leaf( "", -1, -1, false ) );
+                    }
+                }
+                else
+                {
+                    stack.push( element );
+                }
+                i = end + 1;
+            }
+        }
+        return stack.isEmpty() ? result : null;
+    }
+
+    /**
+     * @return the path of the element, of the form /project/dependencies[1]/dependency[2]/version[1].
+     */
+    private static String key( final Deque<Element> ancestors, final Element element )
+    {
+        final StringBuilder key = new StringBuilder();
+        final Iterator<Element> it = ancestors.descendingIterator();
+        while ( it.hasNext() )
+        {
+            append( key, it.next() );
+        }
+        append( key, element );
+        return key.toString();
+    }
+
+    private static void append( final StringBuilder key, final Element element )
+    {
+        key.append( '/' ).append( element.name );
+        if ( element.index > 0 )
+        {
+            key.append( '[' ).append( element.index ).append( ']' );
+        }
+    }
+
+    /**
+     * @return the local name of the tag starting at open and ending at end.
+     */
+    private static String name( final String xml, final int open, final int end )
+    {
+        int nameEnd = open + 1;
+        while ( nameEnd < end && !Character.isWhitespace( xml.charAt( nameEnd ) ) && xml.charAt( nameEnd ) != '/'
+                        && xml.charAt( nameEnd ) != '>' )
+        {
+            nameEnd++;
+        }
+        final String name = xml.substring( open + 1, nameEnd );
+        return name.substring( name.indexOf( ':' ) + 1 );
+    }
+
+    private static void markComplex( final Element element )
+    {
+        if ( element != null )
+        {
+            element.simple = false;
+        }
+    }
+
+    private static int skip( final String xml, final int from, final String terminator )
+    {
+        final int end = xml.indexOf( terminator, from );
+        return end < 0 ? xml.length() : end + terminator.length();
+    }
+
+    /**
+     * @return the index of the closing '&gt;' of the tag starting at the supplied index, taking quoted attribute
+     * values into account.
+     */
+    private static int endOfTag( final String xml, final int from )
+    {
+        char quote = 0;
+        for ( int i = from + 1; i < xml.length(); i++ )
+        {
+            final char c = xml.charAt( i );
+            if ( quote != 0 )
+            {
+                if ( c == quote )
+                {
+                    quote = 0;
+                }
+            }
+            else if ( c == '"' || c == '\'' )
+            {
+                quote = c;
+            }
+            else if ( c == '>' )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the text with the predefined and character entities replaced, or null if it contains any other entity.
+     */
+    private static String decode( final CharSequence text )
+    {
+        final StringBuilder result = new StringBuilder( text.length() );
+        for ( int i = 0; i < text.length(); i++ )
+        {
+            final char c = text.charAt( i );
+            if ( c != '&' )
+            {
+                result.append( c );
+                continue;
+            }
+
+            int end = i + 1;
+            while ( end < text.length() && text.charAt( end ) != ';' )
+            {
+                end++;
+            }
+            if ( end == text.length() )
+            {
+                return null;
+            }
+
+            final String entity = text.subSequence( i + 1, end ).toString();
+            switch ( entity )
+            {
+                case "lt":
+                    result.append( '<' );
+                    break;
+                case "gt":
+                    result.append( '>' );
+                    break;
+                case "amp":
+                    result.append( '&' );
+                    break;
+                case "quot":
+                    result.append( '"' );
+                    break;
+                case "apos":
+                    result.append( '\'' );
+                    break;
+                default:
+                    try
+                    {
+                        if ( entity.startsWith( "#x" ) )
+                        {
+                            result.appendCodePoint( Integer.parseInt( entity.substring( 2 ), 16 ) );
+                        }
+                        else if ( entity.startsWith( "#" ) )
+                        {
+                            result.appendCodePoint( Integer.parseInt( entity.substring( 1 ) ) );
+                        }
+                        else
+                        {
+                            return null;
+                        }
+                    }
+                    catch ( final IllegalArgumentException e )
+                    {
+                        return null;
+                    }
+            }
+            i = end;
+        }
+        return result.toString();
+    }
+
+    private static void escape( final String text, final StringBuilder out )
+    {
+        for ( int i = 0; i < text.length(); i++ )
+        {
+            final char c = text.charAt( i );
+            switch ( c )
+            {
+                case '&':
+                    out.append( "&amp;" );
+                    break;
+                case '<':
+                    out.append( "&lt;" );
+                    break;
+                case '>':
+                    out.append( "&gt;" );
+                    break;
+                case '\r':
+                    out.append( "&#xD;" );
+                    break;
+                default:
+                    out.append( c );
+            }
+        }
+    }
+
+    /**
+     * An element without child elements.
+     */
+    private static final class Leaf
+    {
+        private final String text;
+
+        /**
+         * Range of the element's content in the document ; -1 for an empty element.
+         */
+        private final int start;
+
+        private final int end;
+
+        /**
+         * Whether the content is purely text, so that it can be replaced.
+         */
+        private final boolean simple;
+
+        private Leaf( final String text, final int start, final int end, final boolean simple )
+        {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+            this.simple = simple;
+        }
+    }
+
+    private static final class Change
+    {
+        private final String was;
+
+        private final String now;
+
+        private Change( final String was, final String now )
+        {
+            this.was = was;
+            this.now = now;
+        }
+    }
+
+    private static final class Replacement
+    {
+        private final Leaf target;
+
+        private final String value;
+
+        private Replacement( final Leaf target, final String value )
+        {
+            this.target = target;
+            this.value = value;
+        }
+    }
+
+    private static final class Element
+    {
+        private final String name;
+
+        /**
+         * Position amongst the siblings of the same name, starting at 1 ; 0 for the root element.
+         */
+        private final int index;
+
+        private final int contentStart;
+
+        /**
+         * Start of the content in the modified document, when comparing two documents.
+         */
+        private int afterStart;
+
+        /**
+         * Path of the element, if it is tracked.
+         */
+        private String key;
+
+        /**
+         * Text content of the element, if it is wanted.
+         */
+        private StringBuilder text;
+
+        private Map<String, Integer> children;
+
+        private boolean parent;
+
+        private boolean simple = true;
+
+        private Element( final String name, final int index, final int contentStart )
+        {
+            this.name = name;
+            this.index = index;
+            this.contentStart = contentStart;
+        }
+
+        private int next( final String name )
+        {
+            if ( children == null )
+            {
+                children = new HashMap<>();
+            }
+            final Integer count = children.get( name );
+            final int result = count == null ? 1 : count + 1;
+            children.put( name, result );
+            return result;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.apache.commons.lang.StringUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.model.PomSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Extracts the information required for module discovery (the coordinates, the parent and the modules) from a POM.
+ * This is a replacement for the Galley PomPeek ; rather than tracking the path of every element in the document it
+ * only descends into the sections that may hold the required information, skipping over everything else (e.g. build
+ * and dependency sections) and stops once the remainder of the document can not contribute anything.
+ * <p>
+ * Modules are read from both the top level and from profiles. Elements are matched by local name within the
+ * namespace of the root element, so prefixed (namespaced) POMs are handled. Extracted values are interned as the
+ * same coordinates recur across the POMs of a reactor.
+ */
+final class StreamingPomPeek
+{
+    private static final Logger logger = LoggerFactory.getLogger( StreamingPomPeek.class );
+
+    private static final XMLInputFactory FACTORY = newInputFactory();
+
+    /**
+     * Sections which conventionally follow the coordinates, parent, packaging and modules of a POM.
+     */
+    private static final Set<String> BODY = new HashSet<>(
+                    Arrays.asList( "scm", "issueManagement", "ciManagement", "distributionManagement", "properties",
+                                   "dependencyManagement", "dependencies", "repositories", "pluginRepositories",
+                                   "build", "reporting" ) );
+
+    private final PomSource source;
+
+    private final Set<String> modules = new HashSet<>();
+
+    private String groupId;
+
+    private String artifactId;
+
+    private String version;
+
+    private String packaging;
+
+    private String parentGroupId;
+
+    private String parentArtifactId;
+
+    private String parentVersion;
+
+    private String parentRelativePath;
+
+    private boolean parentRead;
+
+    private boolean bodyReached;
+
+    private ProjectVersionRef key;
+
+    private ProjectVersionRef parentKey;
+
+    private boolean inheritanceRoot;
+
+    StreamingPomPeek( final PomSource source )
+    {
+        this.source = source;
+
+        parse();
+
+        final String g = StringUtils.isEmpty( groupId ) ? parentGroupId : groupId;
+        final String v = StringUtils.isEmpty( version ) ? parentVersion : version;
+
+        if ( isValidArtifactId( artifactId ) && isValidGroupId( g ) && isValidVersion( v ) )
+        {
+            key = new SimpleProjectVersionRef( g, artifactId, v );
+        }
+        else
+        {
+            logger.warn( "Could not peek at POM coordinate for: " + source.getPom()
+                                         + "\nThis POM will NOT be available as an ancestor to other models during effective-model building." );
+        }
+
+        if ( isValidArtifactId( parentArtifactId ) && isValidGroupId( parentGroupId ) && isValidVersion(
+                        parentVersion ) )
+        {
+            parentKey = new SimpleProjectVersionRef( parentGroupId, parentArtifactId, parentVersion );
+        }
+    }
+
+    public ProjectVersionRef getKey()
+    {
+        return key;
+    }
+
+    public ProjectVersionRef getParentKey()
+    {
+        return parentKey;
+    }
+
+    public String getParentRelativePath()
+    {
+        return parentRelativePath;
+    }
+
+    public Set<String> getModules()
+    {
+        return modules;
+    }
+
+    public boolean isInheritanceRoot()
+    {
+        return inheritanceRoot;
+    }
+
+    public void setInheritanceRoot( final boolean inheritanceRoot )
+    {
+        this.inheritanceRoot = inheritanceRoot;
+    }
+
+    /**
+     * @return a factory with DTDs and external entities disabled, as the POMs read may come from untrusted sources.
+     */
+    static XMLInputFactory newInputFactory()
+    {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty( XMLInputFactory.SUPPORT_DTD, false );
+        factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+        return factory;
+    }
+
+    private void parse()
+    {
+        XMLStreamReader reader = null;
+        try
+        {
+            reader = FACTORY.createXMLStreamReader( source.openStream() );
+
+            if ( nextChild( reader ) && "project".equals( reader.getLocalName() ) )
+            {
+                final String namespace = reader.getNamespaceURI();
+
+                while ( !isComplete() && nextChild( reader ) )
+                {
+                    if ( !StringUtils.equals( namespace, reader.getNamespaceURI() ) )
+                    {
+                        skip( reader );
+                        continue;
+                    }
+
+                    if ( BODY.contains( reader.getLocalName() ) )
+                    {
+                        bodyReached = true;
+                        if ( isComplete() )
+                        {
+                            break;
+                        }
+                    }
+
+                    switch ( reader.getLocalName() )
+                    {
+                        case "groupId":
+                            groupId = text( reader );
+                            break;
+                        case "artifactId":
+                            artifactId = text( reader );
+                            break;
+                        case "version":
+                            version = text( reader );
+                            break;
+                        case "packaging":
+                            packaging = text( reader );
+                            break;
+                        case "parent":
+                            readParent( reader );
+                            break;
+                        case "modules":
+                            readModules( reader );
+                            break;
+                        case "profiles":
+                            readProfiles( reader );
+                            break;
+                        default:
+                            skip( reader );
+                    }
+                }
+            }
+        }
+        catch ( final XMLStreamException e )
+        {
+            logger.warn( "Failed to peek at POM coordinate for: " + source.getPom() + " Reason: " + e.getMessage()
+                                         + "\nThis POM will NOT be available as an ancestor to other models during effective-model building.",
+                         e );
+        }
+        finally
+        {
+            if ( reader != null )
+            {
+                try
+                {
+                    reader.close();
+                }
+                catch ( final XMLStreamException e )
+                {
+                    logger.warn( "Failed to close XMLStreamReader: " + e.getMessage(), e );
+                }
+            }
+        }
+    }
+
+    /**
+     * Only a POM packaged project may have modules ; once the packaging is known to be something else and the
+     * coordinates and parent have been read nothing else is of interest. The coordinates may be inherited from the
+     * parent. Once the body of the POM has been reached an omitted packaging (i.e. jar) or parent is taken to be
+     * absent, as both conventionally precede it.
+     */
+    private boolean isComplete()
+    {
+        final boolean coordinates = artifactId != null && ( groupId != null || parentGroupId != null )
+                        && ( version != null || parentVersion != null );
+        final boolean aggregator = packaging == null ? !bodyReached : "pom".equals( packaging );
+
+        return coordinates && !aggregator && ( parentRead || bodyReached );
+    }
+
+    private void readParent( final XMLStreamReader reader )
+                    throws XMLStreamException
+    {
+        parentRead = true;
+        while ( nextChild( reader ) )
+        {
+            switch ( reader.getLocalName() )
+            {
+                case "groupId":
+                    parentGroupId = text( reader );
+                    break;
+                case "artifactId":
+                    parentArtifactId = text( reader );
+                    break;
+                case "version":
+                    parentVersion = text( reader );
+                    break;
+                case "relativePath":
+                    parentRelativePath = text( reader );
+                    break;
+                default:
+                    skip( reader );
+            }
+        }
+    }
+
+    private void readModules( final XMLStreamReader reader )
+                    throws XMLStreamException
+    {
+        while ( nextChild( reader ) )
+        {
+            if ( "module".equals( reader.getLocalName() ) )
+            {
+                modules.add( text( reader ) );
+            }
+            else
+            {
+                skip( reader );
+            }
+        }
+    }
+
+    private void readProfiles( final XMLStreamReader reader )
+                    throws XMLStreamException
+    {
+        while ( nextChild( reader ) )
+        {
+            while ( nextChild( reader ) )
+            {
+                if ( "modules".equals( reader.getLocalName() ) )
+                {
+                    readModules( reader );
+                }
+                else
+                {
+                    skip( reader );
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances to the next child element of the current element.
+     *
+     * @return true if positioned on the start of a child, false if the end of the current element was reached.
+     */
+    private static boolean nextChild( final XMLStreamReader reader )
+                    throws XMLStreamException
+    {
+        while ( reader.hasNext() )
+        {
+            final int event = reader.next();
+            if ( event == XMLStreamConstants.START_ELEMENT )
+            {
+                return true;
+            }
+            else if ( event == XMLStreamConstants.END_ELEMENT )
+            {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Advances past the end of the current element without inspecting its content.
+     */
+    private static void skip( final XMLStreamReader reader )
+                    throws XMLStreamException
+    {
+        int depth = 1;
+        while ( depth > 0 && reader.hasNext() )
+        {
+            final int event = reader.next();
+            if ( event == XMLStreamConstants.START_ELEMENT )
+            {
+                depth++;
+            }
+            else if ( event == XMLStreamConstants.END_ELEMENT )
+            {
+                depth--;
+            }
+        }
+    }
+
+    private static String text( final XMLStreamReader reader )
+                    throws XMLStreamException
+    {
+        return reader.getElementText().trim().intern();
+    }
+
+    private static boolean isValidVersion( final String version )
+    {
+        return !StringUtils.isEmpty( version ) && !"version".equals( version ) && !"parentVersion".equals( version );
+    }
+
+    private static boolean isValidGroupId( final String groupId )
+    {
+        return !StringUtils.isEmpty( groupId ) && !groupId.contains( "${" ) && !"parentGroupId".equals( groupId )
+                        && !"groupId".equals( groupId );
+    }
+
+    private static boolean isValidArtifactId( final String artifactId )
+    {
+        return !StringUtils.isEmpty( artifactId ) && !artifactId.contains( "${" ) && !"parentArtifactId".equals(
+                        artifactId ) && !"artifactId".equals( artifactId );
+    }
+}
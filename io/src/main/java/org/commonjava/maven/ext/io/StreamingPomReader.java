@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the parts of a remote POM needed to align against it (the top level values, parent, properties and the
+ * managed dependencies and plugins) in a single streaming pass, rather than building a DOM and evaluating XPath over
+ * it as the Galley MavenPomView does.
+ * <p>
+ * Sections are matched wherever the equivalent MavenPomView expressions would match them, so e.g. the
+ * dependencyManagement of profiles is included, in document order. Values are held as written ; they are interpolated
+ * against the whole inheritance chain by {@link ModelIO}.
+ */
+final class StreamingPomReader
+{
+    // DTDs and external entities are disabled as the POMs are downloaded from remote repositories.
+    private static final XMLInputFactory FACTORY = StreamingPomPeek.newInputFactory();
+
+    /**
+     * A dependency or plugin ; any of the values may be null if the element is absent or empty.
+     */
+    static final class Entry
+    {
+        private final int depth;
+
+        String groupId;
+
+        String artifactId;
+
+        String version;
+
+        String type;
+
+        String classifier;
+
+        String scope;
+
+        private Entry( final int depth )
+        {
+            this.depth = depth;
+        }
+    }
+
+    private final Map<String, String> values = new HashMap<>();
+
+    private final Map<String, String> properties = new HashMap<>();
+
+    private final List<Entry> managedDependencies = new ArrayList<>();
+
+    private final List<Entry> managedPlugins = new ArrayList<>();
+
+    private final List<Entry> plugins = new ArrayList<>();
+
+    StreamingPomReader( final InputStream in )
+                    throws XMLStreamException
+    {
+        final XMLStreamReader reader = FACTORY.createXMLStreamReader( in );
+        try
+        {
+            parse( reader );
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    /**
+     * @param path a top level element (e.g. <code>version</code>) or a parent element (e.g.
+     * <code>parent.version</code>).
+     * @return its value or null.
+     */
+    String getValue( final String path )
+    {
+        return values.get( path );
+    }
+
+    String getProperty( final String key )
+    {
+        return properties.get( key );
+    }
+
+    boolean hasParent()
+    {
+        return values.containsKey( "parent.groupId" ) || values.containsKey( "parent.artifactId" )
+                        || values.containsKey( "parent.version" );
+    }
+
+    List<Entry> getManagedDependencies()
+    {
+        return managedDependencies;
+    }
+
+    List<Entry> getManagedPlugins()
+    {
+        return managedPlugins;
+    }
+
+    List<Entry> getPlugins()
+    {
+        return plugins;
+    }
+
+    private void parse( final XMLStreamReader reader )
+                    throws XMLStreamException
+    {
+        final List<String> path = new ArrayList<>();
+        final Deque<Entry> open = new ArrayDeque<>();
+        final StringBuilder text = new StringBuilder();
+
+        // The depth of the most recently started element ; once a child starts its parent can't be a leaf.
+        int lastStart = -1;
+
+        while ( reader.hasNext() )
+        {
+            switch ( reader.next() )
+            {
+                case XMLStreamConstants.START_ELEMENT:
+                {
+                    path.add( reader.getLocalName() );
+                    text.setLength( 0 );
+                    lastStart = path.size();
+
+                    final List<Entry> target = target( path );
+                    if ( target != null )
+                    {
+                        final Entry entry = new Entry( path.size() );
+                        target.add( entry );
+                        open.push( entry );
+                    }
+                    break;
+                }
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                {
+                    if ( lastStart == path.size() )
+                    {
+                        text.append( reader.getText() );
+                    }
+                    break;
+                }
+                case XMLStreamConstants.END_ELEMENT:
+                {
+                    final int depth = path.size();
+                    if ( lastStart == depth )
+                    {
+                        final String value = text.toString().trim();
+                        leaf( path, open.peek(), value.isEmpty() ? null : value );
+                    }
+                    if ( !open.isEmpty() && open.peek().depth == depth )
+                    {
+                        open.pop();
+                    }
+                    path.remove( depth - 1 );
+                    lastStart = -1;
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Equivalent to <code>//dependencyManagement/dependencies/dependency</code>,
+     * <code>/project//pluginManagement/plugins/plugin</code> and <code>/project//build/plugins/plugin</code>.
+     */
+    private List<Entry> target( final List<String> path )
+    {
+        final int size = path.size();
+        if ( size < 4 || !"project".equals( path.get( 0 ) ) )
+        {
+            return null;
+        }
+        final String element = path.get( size - 1 );
+        final String list = path.get( size - 2 );
+        final String section = path.get( size - 3 );
+
+        if ( "dependency".equals( element ) && "dependencies".equals( list ) && "dependencyManagement".equals(
+                        section ) )
+        {
+            return managedDependencies;
+        }
+        else if ( "plugin".equals( element ) && "plugins".equals( list ) )
+        {
+            if ( "pluginManagement".equals( section ) )
+            {
+                return managedPlugins;
+            }
+            else if ( "build".equals( section ) )
+            {
+                return plugins;
+            }
+        }
+        return null;
+    }
+
+    private void leaf( final List<String> path, final Entry entry, final String value )
+    {
+        final int depth = path.size();
+        final String name = path.get( depth - 1 );
+
+        if ( value == null || !"project".equals( path.get( 0 ) ) )
+        {
+            return;
+        }
+
+        if ( entry != null && entry.depth == depth - 1 )
+        {
+            switch ( name )
+            {
+                case "groupId":
+                    entry.groupId = value;
+                    break;
+                case "artifactId":
+                    entry.artifactId = value;
+                    break;
+                case "version":
+                    entry.version = value;
+                    break;
+                case "type":
+                    entry.type = value;
+                    break;
+                case "classifier":
+                    entry.classifier = value;
+                    break;
+                case "scope":
+                    entry.scope = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+        else if ( depth == 2 )
+        {
+            putIfAbsent( values, name, value );
+        }
+        else if ( depth == 3 && "parent".equals( path.get( 1 ) ) )
+        {
+            putIfAbsent( values, "parent." + name, value );
+        }
+        else if ( depth == 3 && "properties".equals( path.get( 1 ) ) )
+        {
+            putIfAbsent( properties, name, value );
+        }
+    }
+
+    private static void putIfAbsent( final Map<String, String> map, final String key, final String value )
+    {
+        if ( !map.containsKey( key ) )
+        {
+            map.put( key, value );
+        }
+    }
+}
@@ -68,9 +68,13 @@ import java.io.File;
 import java.net.MalformedURLException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import static org.apache.commons.lang.StringUtils.isEmpty;
+import static org.commonjava.maven.ext.common.util.UserProperties.getLong;
+
 /**
  * Manager component responsible for setting up and managing the Galley API instances used to resolve POMs and metadata.
  * 
@@ -80,6 +84,34 @@ import java.util.concurrent.Executors;
 public class GalleyInfrastructure
     implements ExtensionInfrastructure
 {
+    /**
+     * User property to enable a download cache shared between builds ; the value is the cache directory.
+     */
+    public static final String SHARED_CACHE_PROPERTY = "sharedResolutionCache";
+
+    /**
+     * User property to configure the maximum size (in megabytes) of the shared cache.
+     */
+    public static final String SHARED_CACHE_SIZE_PROPERTY = "sharedResolutionCacheSize";
+
+    public static final long DEFAULT_SHARED_CACHE_SIZE = 512;
+
+    /**
+     * User property to configure how long (in minutes) metadata and snapshots are taken from the shared cache. Zero
+     * (the default) always downloads them ; a negative value never expires them.
+     */
+    public static final String SHARED_CACHE_METADATA_TTL_PROPERTY = "sharedResolutionCacheMetadataTTL";
+
+    public static final long DEFAULT_SHARED_CACHE_METADATA_TTL = 0;
+
+    /**
+     * User property to configure how long (in minutes) release artifacts are taken from the shared cache. A negative
+     * value (the default) never expires them.
+     */
+    public static final String SHARED_CACHE_RELEASE_TTL_PROPERTY = "sharedResolutionCacheReleaseTTL";
+
+    public static final long DEFAULT_SHARED_CACHE_RELEASE_TTL = -1;
+
     @Requirement
     private MirrorSelector mirrorSelector;
 
@@ -102,6 +134,50 @@ public class GalleyInfrastructure
 
     private File cacheDir;
 
+    private SharedResolutionCache sharedCache;
+
+    public SharedResolutionCache getSharedCache()
+    {
+        return sharedCache;
+    }
+
+    /**
+     * @param sharedCache the cache shared between builds to use from the next {@link #init}, or null for none.
+     */
+    public void setSharedCache( final SharedResolutionCache sharedCache )
+    {
+        this.sharedCache = sharedCache;
+    }
+
+    /**
+     * Creates the cache shared between builds configured by the {@link #SHARED_CACHE_PROPERTY},
+     * {@link #SHARED_CACHE_SIZE_PROPERTY}, {@link #SHARED_CACHE_METADATA_TTL_PROPERTY} and
+     * {@link #SHARED_CACHE_RELEASE_TTL_PROPERTY} user properties.
+     *
+     * @param userProperties the user properties of the build.
+     * @return the cache, or null if none is configured.
+     * @throws ManipulationException if the size or a time to live is not a number.
+     */
+    public static SharedResolutionCache createSharedCache( final Properties userProperties )
+                    throws ManipulationException
+    {
+        final String directory = userProperties.getProperty( SHARED_CACHE_PROPERTY );
+        if ( isEmpty( directory ) )
+        {
+            return null;
+        }
+
+        final long size = getLong( userProperties, SHARED_CACHE_SIZE_PROPERTY, DEFAULT_SHARED_CACHE_SIZE );
+        final long metadataTtl =
+                        getLong( userProperties, SHARED_CACHE_METADATA_TTL_PROPERTY, DEFAULT_SHARED_CACHE_METADATA_TTL );
+        final long releaseTtl =
+                        getLong( userProperties, SHARED_CACHE_RELEASE_TTL_PROPERTY, DEFAULT_SHARED_CACHE_RELEASE_TTL );
+
+        return new SharedResolutionCache( new File( directory ), size * 1024 * 1024,
+                                          SharedResolutionCache.minutes( metadataTtl ),
+                                          SharedResolutionCache.minutes( releaseTtl ) );
+    }
+
     protected GalleyInfrastructure()
     {
     }
@@ -122,6 +198,17 @@ public class GalleyInfrastructure
         init( targetDirectory, remoteRepositories, localRepository, settings, activeProfiles, customLocation, customTransport, cacheDir );
     }
 
+    public GalleyInfrastructure( final File targetDirectory, final List<ArtifactRepository> remoteRepositories, final ArtifactRepository localRepository,
+                                 final Settings settings, final List<String> activeProfiles, final MirrorSelector mirrorSelector,
+                                 final Location customLocation, final Transport customTransport, final File cacheDir,
+                                 final SharedResolutionCache sharedCache )
+        throws ManipulationException
+    {
+        this.mirrorSelector = mirrorSelector;
+        this.sharedCache = sharedCache;
+        init( targetDirectory, remoteRepositories, localRepository, settings, activeProfiles, customLocation, customTransport, cacheDir );
+    }
+
     public MavenPomReader getPomReader()
     {
         return pomReader;
@@ -159,17 +246,28 @@ public class GalleyInfrastructure
         xml = new XMLInfrastructure();
         xpaths = new XPathManager();
 
-        final TransportManager transports;
+        final Transport[] transportList;
         if ( customTransport != null )
         {
-            transports = new TransportManagerImpl( customTransport );
+            transportList = new Transport[] { customTransport };
         }
         else
         {
-            transports =
-                new TransportManagerImpl( new HttpClientTransport( new HttpImpl( new MemoryPasswordManager() ) ),
-                                          new FileTransport(), new ZipJarTransport() );
+            transportList = new Transport[] { new HttpClientTransport( new HttpImpl( new MemoryPasswordManager() ) ),
+                                              new FileTransport(), new ZipJarTransport() };
+        }
+        if ( sharedCache != null )
+        {
+            // Only remote content is worth sharing ; local files and archives are read in place.
+            for ( int i = 0; i < transportList.length; i++ )
+            {
+                if ( transportList[i] instanceof HttpClientTransport )
+                {
+                    transportList[i] = new SharedCacheTransport( transportList[i], sharedCache );
+                }
+            }
         }
+        final TransportManager transports = new TransportManagerImpl( transportList );
 
         cacheDir = cacheDir_;
         if ( cacheDir == null )
@@ -235,5 +333,10 @@ public class GalleyInfrastructure
 
     public void finish() {
         executor.shutdown();
+
+        if ( sharedCache != null )
+        {
+            sharedCache.evict();
+        }
     }
 }
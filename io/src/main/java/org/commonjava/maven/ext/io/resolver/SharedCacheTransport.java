@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.commonjava.maven.galley.TransferException;
+import org.commonjava.maven.galley.event.EventMetadata;
+import org.commonjava.maven.galley.model.ConcreteResource;
+import org.commonjava.maven.galley.model.Location;
+import org.commonjava.maven.galley.model.Transfer;
+import org.commonjava.maven.galley.model.TransferOperation;
+import org.commonjava.maven.galley.spi.transport.DownloadJob;
+import org.commonjava.maven.galley.spi.transport.ExistenceJob;
+import org.commonjava.maven.galley.spi.transport.ListingJob;
+import org.commonjava.maven.galley.spi.transport.PublishJob;
+import org.commonjava.maven.galley.spi.transport.Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * Transport decorator which serves downloads from a {@link SharedResolutionCache} where possible, and adds anything
+ * it does download to it. Cached content which does not match its hash is discarded and downloaded again. All other
+ * operations are delegated unchanged.
+ */
+final class SharedCacheTransport
+    implements Transport
+{
+    private static final Logger logger = LoggerFactory.getLogger( SharedCacheTransport.class );
+
+    private final Transport delegate;
+
+    private final SharedResolutionCache cache;
+
+    SharedCacheTransport( final Transport delegate, final SharedResolutionCache cache )
+    {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public DownloadJob createDownloadJob( final ConcreteResource resource, final Transfer target,
+                                          final Map<Transfer, Long> transferSizes, final int timeoutSeconds,
+                                          final EventMetadata eventMetadata )
+                    throws TransferException
+    {
+        final DownloadJob job =
+                        delegate.createDownloadJob( resource, target, transferSizes, timeoutSeconds, eventMetadata );
+        final long ttl = cache.getTtl( resource.getPath() );
+
+        if ( ttl == 0 )
+        {
+            return job;
+        }
+
+        final String key = resource.getLocation().getUri() + '/' + resource.getPath();
+
+        return new DownloadJob()
+        {
+            private long cachedSize = -1;
+
+            @Override
+            public DownloadJob call()
+                            throws Exception
+            {
+                if ( fromCache() )
+                {
+                    return this;
+                }
+
+                try ( Closeable ignored = cache.lock( key ) )
+                {
+                    // Another build may have downloaded it while we waited.
+                    if ( fromCache() )
+                    {
+                        return this;
+                    }
+
+                    if ( job.call() == null )
+                    {
+                        return null;
+                    }
+                    if ( job.getError() == null && target.exists() )
+                    {
+                        try ( InputStream in = target.openInputStream() )
+                        {
+                            cache.put( key, in );
+                        }
+                    }
+                }
+                return this;
+            }
+
+            private boolean fromCache()
+            {
+                final File file = cache.get( key, ttl );
+                if ( file == null )
+                {
+                    return false;
+                }
+
+                try
+                {
+                    final MessageDigest digest = SharedResolutionCache.sha256();
+                    final long size;
+
+                    target.delete( false );
+                    try ( InputStream in = new DigestInputStream( Files.newInputStream( file.toPath() ), digest );
+                          OutputStream out = target.openOutputStream( TransferOperation.DOWNLOAD ) )
+                    {
+                        size = IOUtils.copyLarge( in, out );
+                    }
+
+                    // Content is stored under its hash ; anything else has been corrupted so download it again.
+                    if ( !file.getName().equals( Hex.encodeHexString( digest.digest() ) ) )
+                    {
+                        cache.discard( file );
+                        target.delete( false );
+                        return false;
+                    }
+
+                    cachedSize = size;
+                    logger.debug( "Resolved {} from shared cache {}", key, cache.getDirectory() );
+                    return true;
+                }
+                catch ( final IOException e )
+                {
+                    logger.debug( "Unable to use shared cache entry for {}: {}", key, e.getMessage() );
+                    return false;
+                }
+            }
+
+            @Override
+            public long getTransferSize()
+            {
+                return cachedSize >= 0 ? cachedSize : job.getTransferSize();
+            }
+
+            @Override
+            public Transfer getTransfer()
+            {
+                return cachedSize >= 0 ? target : job.getTransfer();
+            }
+
+            @Override
+            public TransferException getError()
+            {
+                return cachedSize >= 0 ? null : job.getError();
+            }
+        };
+    }
+
+    @Override
+    public ListingJob createListingJob( final ConcreteResource resource, final Transfer target,
+                                        final int timeoutSeconds )
+                    throws TransferException
+    {
+        return delegate.createListingJob( resource, target, timeoutSeconds );
+    }
+
+    @Override
+    public PublishJob createPublishJob( final ConcreteResource resource, final InputStream stream, final long length,
+                                        final int timeoutSeconds )
+                    throws TransferException
+    {
+        return delegate.createPublishJob( resource, stream, length, timeoutSeconds );
+    }
+
+    @Override
+    public PublishJob createPublishJob( final ConcreteResource resource, final InputStream stream, final long length,
+                                        final String contentType, final int timeoutSeconds )
+                    throws TransferException
+    {
+        return delegate.createPublishJob( resource, stream, length, contentType, timeoutSeconds );
+    }
+
+    @Override
+    public ExistenceJob createExistenceJob( final ConcreteResource resource, final Transfer target,
+                                            final int timeoutSeconds )
+                    throws TransferException
+    {
+        return delegate.createExistenceJob( resource, target, timeoutSeconds );
+    }
+
+    @Override
+    public boolean handles( final Location location )
+    {
+        return delegate.handles( location );
+    }
+
+    @Override
+    public boolean allowsCaching()
+    {
+        return delegate.allowsCaching();
+    }
+}
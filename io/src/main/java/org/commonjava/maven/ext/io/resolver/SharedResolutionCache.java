@@ -0,0 +1,427 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * On-disk cache of downloaded files that may be shared by any number of builds (and processes) on one machine, so
+ * that e.g. the same BOMs are not downloaded again by every checkout and clean build.
+ * <p>
+ * Content is stored once per SHA-256 of the file (<code>content/</code>) and looked up through an index keyed by the
+ * SHA-256 of the source URL (<code>index/</code>). Entries are written to a temporary file and renamed into place, so
+ * readers never see partial files, and downloads of the same key are serialised between threads and processes with a
+ * file lock so only one of them fetches it. Index entries expire according to a time to live which differs between
+ * mutable resources (metadata and snapshots) and releases. Reading content touches it so that once the cache exceeds its
+ * maximum size the least recently used content is removed by {@link #evict()}.
+ */
+public final class SharedResolutionCache
+{
+    private static final Logger logger = LoggerFactory.getLogger( SharedResolutionCache.class );
+
+    private static final int STRIPES = 64;
+
+    private final File directory;
+
+    private final File content;
+
+    private final File index;
+
+    private final File locks;
+
+    private final long maxSize;
+
+    private final long metadataTtl;
+
+    private final long releaseTtl;
+
+    private final Lock[] stripes = new Lock[STRIPES];
+
+    /**
+     * @param directory the directory in which to store the entries ; created if required.
+     * @param maxSize the maximum total size in bytes of the content retained by {@link #evict()}.
+     * @param metadataTtl how long (in milliseconds) metadata and snapshots are used for ; zero disables caching them
+     * and a negative value means they never expire.
+     * @param releaseTtl how long (in milliseconds) any other files are used for, as above.
+     */
+    public SharedResolutionCache( final File directory, final long maxSize, final long metadataTtl,
+                                  final long releaseTtl )
+    {
+        this.directory = directory;
+        this.content = new File( directory, "content" );
+        this.index = new File( directory, "index" );
+        this.locks = new File( directory, "locks" );
+        this.maxSize = maxSize;
+        this.metadataTtl = metadataTtl;
+        this.releaseTtl = releaseTtl;
+
+        for ( int i = 0; i < STRIPES; i++ )
+        {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * @param path the repository path of a file.
+     * @return the time to live in milliseconds of the file, zero if it should not be cached or negative if it never
+     * expires.
+     */
+    long getTtl( final String path )
+    {
+        return path.contains( "maven-metadata" ) || path.contains( "-SNAPSHOT" ) ? metadataTtl : releaseTtl;
+    }
+
+    /**
+     * @param key the source of the file (e.g. its URL).
+     * @param ttl the time to live of the entry in milliseconds ; negative if it never expires.
+     * @return the cached content, or null if there is no entry or it has expired.
+     */
+    File get( final String key, final long ttl )
+    {
+        final File entry = indexEntry( key );
+        if ( !entry.isFile() || ( ttl >= 0 && System.currentTimeMillis() - entry.lastModified() > ttl ) )
+        {
+            return null;
+        }
+
+        final String hash;
+        try ( BufferedReader reader = Files.newBufferedReader( entry.toPath(), StandardCharsets.UTF_8 ) )
+        {
+            hash = reader.readLine();
+        }
+        catch ( final IOException e )
+        {
+            logger.debug( "Discarding unreadable cache entry {} for {}: {}", entry, key, e.getMessage() );
+            delete( entry.toPath() );
+            return null;
+        }
+
+        final File file = hash == null ? null : new File( content, hash );
+        if ( file == null || !file.isFile() )
+        {
+            return null;
+        }
+        if ( !file.setLastModified( System.currentTimeMillis() ) )
+        {
+            logger.trace( "Unable to update last modified time of {}", file );
+        }
+        logger.trace( "Using shared cache entry {} for {}", file, key );
+        return file;
+    }
+
+    /**
+     * Stores the content for a key. Failures are logged and otherwise ignored.
+     *
+     * @param key the source of the file (e.g. its URL).
+     * @param in the content.
+     */
+    void put( final String key, final InputStream in )
+    {
+        Path temp = null;
+        try
+        {
+            Files.createDirectories( content.toPath() );
+            Files.createDirectories( index.toPath() );
+
+            final MessageDigest digest = sha256();
+            temp = Files.createTempFile( content.toPath(), "download", ".tmp" );
+            try ( OutputStream out = new DigestOutputStream( Files.newOutputStream( temp ), digest ) )
+            {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ( ( read = in.read( buffer ) ) != -1 )
+                {
+                    out.write( buffer, 0, read );
+                }
+            }
+
+            final String hash = Hex.encodeHexString( digest.digest() );
+            final Path target = new File( content, hash ).toPath();
+            if ( Files.exists( target ) )
+            {
+                // Identical content is already held (e.g. from another repository).
+                delete( temp );
+                if ( !target.toFile().setLastModified( System.currentTimeMillis() ) )
+                {
+                    logger.trace( "Unable to update last modified time of {}", target );
+                }
+            }
+            else
+            {
+                move( temp, target );
+            }
+
+            temp = Files.createTempFile( index.toPath(), "entry", ".tmp" );
+            try ( Writer writer = Files.newBufferedWriter( temp, StandardCharsets.UTF_8 ) )
+            {
+                writer.write( hash );
+                writer.write( '\n' );
+                writer.write( key );
+                writer.write( '\n' );
+            }
+            move( temp, indexEntry( key ).toPath() );
+            temp = null;
+        }
+        catch ( final IOException e )
+        {
+            logger.debug( "Unable to add {} to the shared cache: {}", key, e.getMessage() );
+            if ( temp != null )
+            {
+                delete( temp );
+            }
+        }
+    }
+
+    /**
+     * Removes content which no longer matches its hash, so that it is stored again by the next {@link #put}.
+     *
+     * @param file the content as returned by {@link #get}.
+     */
+    void discard( final File file )
+    {
+        logger.warn( "Discarding corrupt shared cache content {}", file );
+        delete( file.toPath() );
+    }
+
+    /**
+     * Acquires a lock on a key, blocking until it is available, to prevent other threads and processes downloading
+     * the same file at the same time. Keys are mapped onto a fixed number of locks so unrelated keys may occasionally
+     * wait for each other.
+     *
+     * @param key the source of the file (e.g. its URL).
+     * @return the lock, to be closed once the entry has been read or written.
+     * @throws IOException if the lock file can not be created.
+     */
+    Closeable lock( final String key )
+                    throws IOException
+    {
+        final int stripe = ( key.hashCode() & Integer.MAX_VALUE ) % STRIPES;
+        final Lock lock = stripes[stripe];
+
+        lock.lock();
+        try
+        {
+            Files.createDirectories( locks.toPath() );
+            final FileChannel channel = FileChannel.open( new File( locks, stripe + ".lock" ).toPath(),
+                                                          StandardOpenOption.CREATE, StandardOpenOption.WRITE );
+            try
+            {
+                final FileLock fileLock = channel.lock();
+                return new Closeable()
+                {
+                    @Override
+                    public void close()
+                                    throws IOException
+                    {
+                        try
+                        {
+                            fileLock.release();
+                            channel.close();
+                        }
+                        finally
+                        {
+                            lock.unlock();
+                        }
+                    }
+                };
+            }
+            catch ( final IOException | RuntimeException e )
+            {
+                channel.close();
+                throw e;
+            }
+        }
+        catch ( final IOException | RuntimeException e )
+        {
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the least recently used content until the total size of the cache is within the configured limit,
+     * along with any index entries which no longer refer to content. Only one process evicts at a time ; if another
+     * is already doing so this returns immediately.
+     */
+    void evict()
+    {
+        final File[] files = content.listFiles( new FilenameFilter()
+        {
+            @Override
+            public boolean accept( final File dir, final String name )
+            {
+                return !name.endsWith( ".tmp" );
+            }
+        } );
+        if ( files == null )
+        {
+            return;
+        }
+
+        long size = 0;
+        for ( final File file : files )
+        {
+            size += file.length();
+        }
+        if ( size <= maxSize )
+        {
+            return;
+        }
+
+        try ( FileChannel channel = FileChannel.open( new File( directory, "evict.lock" ).toPath(),
+                                                      StandardOpenOption.CREATE, StandardOpenOption.WRITE );
+              FileLock lock = channel.tryLock() )
+        {
+            if ( lock == null )
+            {
+                return;
+            }
+
+            final long[] lastModified = new long[files.length];
+            final Integer[] order = new Integer[files.length];
+            for ( int i = 0; i < files.length; i++ )
+            {
+                lastModified[i] = files[i].lastModified();
+                order[i] = i;
+            }
+            Arrays.sort( order, new Comparator<Integer>()
+            {
+                @Override
+                public int compare( final Integer o1, final Integer o2 )
+                {
+                    return Long.compare( lastModified[o1], lastModified[o2] );
+                }
+            } );
+
+            for ( int i = 0; i < order.length && size > maxSize; i++ )
+            {
+                final File file = files[order[i]];
+                final long length = file.length();
+                if ( delete( file.toPath() ) )
+                {
+                    size -= length;
+                }
+            }
+
+            final File[] entries = index.listFiles();
+            for ( final File entry : entries == null ? new File[0] : entries )
+            {
+                try ( BufferedReader reader = Files.newBufferedReader( entry.toPath(), StandardCharsets.UTF_8 ) )
+                {
+                    final String hash = reader.readLine();
+                    if ( hash == null || !new File( content, hash ).isFile() )
+                    {
+                        delete( entry.toPath() );
+                    }
+                }
+                catch ( final IOException e )
+                {
+                    logger.trace( "Unable to read {}", entry );
+                }
+            }
+            logger.debug( "Evicted entries from shared cache {} ; size is now {} bytes", directory, size );
+        }
+        catch ( final IOException e )
+        {
+            logger.debug( "Unable to evict entries from shared cache {}: {}", directory, e.getMessage() );
+        }
+    }
+
+    /**
+     * Converts a time to live from minutes, retaining the meaning of zero and negative values.
+     */
+    public static long minutes( final long minutes )
+    {
+        return minutes < 0 ? -1 : TimeUnit.MINUTES.toMillis( minutes );
+    }
+
+    static MessageDigest sha256()
+                    throws IOException
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-256" );
+        }
+        catch ( final NoSuchAlgorithmException e )
+        {
+            throw new IOException( e );
+        }
+    }
+
+    private File indexEntry( final String key )
+    {
+        return new File( index, DigestUtils.sha256Hex( key ) );
+    }
+
+    private static void move( final Path source, final Path target )
+                    throws IOException
+    {
+        try
+        {
+            Files.move( source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+        }
+        catch ( final AtomicMoveNotSupportedException e )
+        {
+            Files.move( source, target, StandardCopyOption.REPLACE_EXISTING );
+        }
+    }
+
+    private static boolean delete( final Path path )
+    {
+        try
+        {
+            return Files.deleteIfExists( path );
+        }
+        catch ( final IOException e )
+        {
+            logger.trace( "Unable to remove {}", path );
+            return false;
+        }
+    }
+}
@@ -17,7 +17,9 @@ package org.commonjava.maven.ext.io;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.maven.model.Model;
+import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.GAV;
+import org.commonjava.maven.ext.common.model.PomSource;
 import org.commonjava.maven.ext.common.model.Project;
 import org.junit.Before;
 import org.junit.Rule;
@@ -26,11 +28,14 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class PomIOTest
 {
@@ -76,6 +81,172 @@ public class PomIOTest
         assertTrue( FileUtils.contentEquals( targetFile, pom ) );
     }
 
+    @Test
+    public void testRewritePOMsSkipsUnchanged()
+                    throws Exception
+    {
+        URL resource = PomIOTest.class.getResource( filename );
+        assertNotNull( resource );
+        File pom = new File( resource.getFile() );
+
+        File targetFile = folder.newFile( "target.xml" );
+        FileUtils.copyFile( pom, targetFile );
+        assertTrue( targetFile.setLastModified( 1000 ) );
+
+        Model model = new Model();
+        model.setGroupId( "org.commonjava.maven.ext.versioning.test" );
+        model.setArtifactId( "dospom" );
+        model.setVersion( "1.0" );
+        model.setPackaging( "pom" );
+        model.setModelVersion( "4.0.0" );
+
+        HashSet<Project> changed = new HashSet<>();
+        changed.add( new Project( targetFile, model ) );
+
+        assertTrue( pomIO.rewritePOMs( new GAV(), changed ).isEmpty() );
+        assertEquals( 1000, targetFile.lastModified() );
+
+        model.setVersion( "2.0" );
+        assertEquals( changed, pomIO.rewritePOMs( new GAV(), changed ) );
+        assertTrue( FileUtils.readFileToString( targetFile ).contains( "<version>2.0</version>" ) );
+    }
+
+    @Test
+    public void testRewritePOMsLeavesFilesUntouchedOnFailure()
+                    throws Exception
+    {
+        URL resource = PomIOTest.class.getResource( filename );
+        assertNotNull( resource );
+        File pom = new File( resource.getFile() );
+
+        File targetFile = folder.newFile( "target.xml" );
+        FileUtils.copyFile( pom, targetFile );
+        File brokenFile = folder.newFile( "broken.xml" );
+        FileUtils.writeStringToFile( brokenFile, "<project>\n<modelVersion>" );
+
+        Model model = new Model();
+        model.setGroupId( "org.commonjava.maven.ext.versioning.test" );
+        model.setArtifactId( "dospom" );
+        model.setVersion( "2.0" );
+        model.setPackaging( "pom" );
+        model.setModelVersion( "4.0.0" );
+
+        Model brokenModel = model.clone();
+        brokenModel.setArtifactId( "broken" );
+
+        HashSet<Project> changed = new HashSet<>();
+        changed.add( new Project( targetFile, model ) );
+        changed.add( new Project( brokenFile, brokenModel ) );
+
+        try
+        {
+            pomIO.rewritePOMs( new GAV(), changed );
+            fail( "Expected rewrite to fail" );
+        }
+        catch ( ManipulationException e )
+        {
+            // Expected
+        }
+
+        assertTrue( FileUtils.contentEquals( targetFile, pom ) );
+        assertEquals( 2, folder.getRoot().list().length );
+    }
+
+    @Test
+    public void testWriteAtomicallyRestoresReplacedFilesOnFailure()
+                    throws Exception
+    {
+        File first = folder.newFile( "first.xml" );
+        FileUtils.writeStringToFile( first, "<project>first</project>" );
+        // A non-empty directory can not be replaced, so the second rename fails.
+        File second = folder.newFolder( "second.xml" );
+        assertTrue( new File( second, "content" ).createNewFile() );
+
+        try
+        {
+            pomIO.writeAtomically( Arrays.asList( new PomSource( first, "<project>1</project>".getBytes() ),
+                                                  new PomSource( second, "<project>2</project>".getBytes() ) ) );
+            fail( "Expected rewrite to fail" );
+        }
+        catch ( ManipulationException e )
+        {
+            // Expected
+        }
+
+        assertEquals( "<project>first</project>", FileUtils.readFileToString( first ) );
+        assertTrue( second.isDirectory() );
+        assertEquals( 2, folder.getRoot().list().length );
+    }
+
+    @Test
+    public void testRewritePOMsPatchesValues()
+                    throws Exception
+    {
+        String original = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                        + "    <modelVersion>4.0.0</modelVersion>\n"
+                        + "  <groupId>org.foo</groupId> <artifactId>bar</artifactId>\n"
+                        + "  <version>  1.0 </version>\n"
+                        + "  <!-- versions -->\n"
+                        + "  <properties><baz.version>2.0</baz.version><other>a &amp; b</other></properties>\n"
+                        + "  <dependencies>\n"
+                        + "    <dependency><groupId>org.foo</groupId><artifactId>baz</artifactId>"
+                        + "<version>${baz.version}</version></dependency>\n"
+                        + "    <dependency><artifactId>qux</artifactId><groupId>org.foo</groupId>"
+                        + "<version>3.0</version></dependency>\n"
+                        + "  </dependencies>\n"
+                        + "</project>\n";
+
+        File targetFile = folder.newFile( "pom.xml" );
+        FileUtils.writeStringToFile( targetFile, original, "UTF-8" );
+
+        pomIO.setPatching( true );
+        Project project = pomIO.parseProject( targetFile ).get( 0 );
+        Model model = project.getModel();
+        model.setVersion( "1.0.redhat-1" );
+        model.getProperties().setProperty( "baz.version", "2.0.redhat-1" );
+        model.getDependencies().get( 1 ).setVersion( "3.0<4" );
+
+        // The execution root is always rewritten through JDOM, so treat this as a module.
+        Project module = new Project( project.getPomSource(), model );
+        HashSet<Project> changed = new HashSet<>();
+        changed.add( module );
+        pomIO.rewritePOMs( new GAV(), changed );
+
+        assertEquals( original.replace( "  1.0 ", "1.0.redhat-1" )
+                              .replace( ">2.0<", ">2.0.redhat-1<" )
+                              .replace( "3.0", "3.0&lt;4" ), FileUtils.readFileToString( targetFile, "UTF-8" ) );
+
+        // Structural changes fall back to JDOM.
+        model.getDependencies().remove( 0 );
+        pomIO.rewritePOMs( new GAV(), changed );
+
+        String rewritten = FileUtils.readFileToString( targetFile, "UTF-8" );
+        assertTrue( rewritten.contains( "<!-- versions -->" ) );
+        assertTrue( !rewritten.contains( "<artifactId>baz</artifactId>" ) );
+    }
+
+    @Test
+    public void testParseProjectRetainsSource()
+                    throws Exception
+    {
+        URL resource = PomIOTest.class.getResource( filename );
+        assertNotNull( resource );
+        File pom = new File( resource.getFile() );
+
+        File targetFile = folder.newFile( "pom.xml" );
+        FileUtils.copyFile( pom, targetFile );
+
+        List<Project> projects = pomIO.parseProject( targetFile );
+        assertEquals( 1, projects.size() );
+
+        PomSource source = projects.get( 0 ).getPomSource();
+        assertNotNull( source );
+        assertEquals( targetFile, source.getPom() );
+        assertEquals( "UTF-8", source.getEncoding() );
+        assertEquals( "\r\n", source.getLineSeparator() );
+        assertTrue( Arrays.equals( FileUtils.readFileToByteArray( targetFile ), source.getContent() ) );
+    }
 
     @Test
     public void testWriteModel()
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.model.PomSource;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingPomPeekTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPeekNamespacedPom()
+                    throws Exception
+    {
+        String pom = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<pom:project xmlns:pom=\"http://maven.apache.org/POM/4.0.0\" xmlns:ant=\"antlib:foo\">\n"
+                        + "  <pom:parent><pom:groupId>org.foo</pom:groupId><pom:artifactId>parent</pom:artifactId>"
+                        + "<pom:version>1.0</pom:version><pom:relativePath>../parent</pom:relativePath></pom:parent>\n"
+                        + "  <ant:version>2.0</ant:version>\n"
+                        + "  <pom:artifactId>child</pom:artifactId>\n"
+                        + "  <pom:packaging>pom</pom:packaging>\n"
+                        + "  <pom:build><pom:plugins><pom:plugin><pom:modules><pom:module>ignored</pom:module>"
+                        + "</pom:modules></pom:plugin></pom:plugins></pom:build>\n"
+                        + "  <pom:modules><pom:module> moduleA </pom:module></pom:modules>\n"
+                        + "  <pom:profiles><pom:profile><pom:id>p</pom:id><pom:modules><pom:module>moduleB</pom:module>"
+                        + "</pom:modules></pom:profile></pom:profiles>\n"
+                        + "</pom:project>\n";
+
+        StreamingPomPeek peek = new StreamingPomPeek( new PomSource( new File( "pom.xml" ), pom.getBytes( "UTF-8" ) ) );
+
+        assertEquals( new SimpleProjectVersionRef( "org.foo", "child", "1.0" ), peek.getKey() );
+        assertEquals( new SimpleProjectVersionRef( "org.foo", "parent", "1.0" ), peek.getParentKey() );
+        assertEquals( "../parent", peek.getParentRelativePath() );
+        assertEquals( new HashSet<>( Arrays.asList( "moduleA", "moduleB" ) ), peek.getModules() );
+        assertSame( "org.foo", peek.getKey().getGroupId() );
+    }
+
+    @Test
+    public void testPeekTemplatePom()
+                    throws Exception
+    {
+        String pom = "<project><groupId>${groupId}</groupId><artifactId>child</artifactId>"
+                        + "<version>1.0</version></project>";
+
+        StreamingPomPeek peek = new StreamingPomPeek( new PomSource( new File( "pom.xml" ), pom.getBytes( "UTF-8" ) ) );
+
+        assertNull( peek.getKey() );
+        assertNull( peek.getParentKey() );
+        assertNull( peek.getParentRelativePath() );
+        assertTrue( peek.getModules().isEmpty() );
+    }
+
+    @Test
+    public void testPeekIgnoresExternalEntities()
+                    throws Exception
+    {
+        File secret = folder.newFile( "secret.txt" );
+        FileUtils.writeStringToFile( secret, "1.0" );
+        String pom = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<!DOCTYPE project [<!ENTITY xxe SYSTEM \"" + secret.toURI() + "\">]>\n"
+                        + "<project><groupId>org.foo</groupId><artifactId>child</artifactId>"
+                        + "<version>&xxe;</version></project>";
+
+        StreamingPomPeek peek = new StreamingPomPeek( new PomSource( new File( "pom.xml" ), pom.getBytes( "UTF-8" ) ) );
+
+        assertNull( peek.getKey() );
+    }
+
+    @Test
+    public void testPeekStopsBeforeBuildOfChildModule()
+                    throws Exception
+    {
+        StringBuilder plugins = new StringBuilder();
+        for ( int i = 0; i < 5000; i++ )
+        {
+            plugins.append( "<plugin><artifactId>plugin-" ).append( i ).append( "</artifactId></plugin>" );
+        }
+        String pom = "<project>\n"
+                        + "  <parent><groupId>org.foo</groupId><artifactId>parent</artifactId>"
+                        + "<version>1.0</version></parent>\n"
+                        + "  <artifactId>child</artifactId>\n"
+                        + "  <build><plugins>" + plugins + "</plugins></build>\n"
+                        + "</project>\n";
+        final byte[] content = pom.getBytes( "UTF-8" );
+        final AtomicInteger read = new AtomicInteger();
+
+        StreamingPomPeek peek = new StreamingPomPeek( new PomSource( new File( "pom.xml" ), content )
+        {
+            @Override
+            public InputStream openStream()
+            {
+                return new CountingInputStream( super.openStream() )
+                {
+                    @Override
+                    protected synchronized void afterRead( final int n )
+                    {
+                        super.afterRead( n );
+                        read.set( getCount() );
+                    }
+                };
+            }
+        } );
+
+        assertEquals( new SimpleProjectVersionRef( "org.foo", "child", "1.0" ), peek.getKey() );
+        assertEquals( new SimpleProjectVersionRef( "org.foo", "parent", "1.0" ), peek.getParentKey() );
+        assertTrue( read.get() + " of " + content.length, read.get() < content.length / 2 );
+    }
+}
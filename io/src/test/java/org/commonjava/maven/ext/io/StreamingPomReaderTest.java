@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamingPomReaderTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReadManagedDependencies()
+                    throws Exception
+    {
+        String pom = "<project><groupId>org.foo</groupId><artifactId>bom</artifactId><version>1.0</version>"
+                        + "<properties><bar.version>2.0</bar.version></properties>"
+                        + "<dependencyManagement><dependencies><dependency><groupId>org.bar</groupId>"
+                        + "<artifactId>bar</artifactId><version>${bar.version}</version></dependency>"
+                        + "</dependencies></dependencyManagement></project>";
+
+        StreamingPomReader reader = new StreamingPomReader( new ByteArrayInputStream( pom.getBytes( "UTF-8" ) ) );
+
+        assertEquals( "1.0", reader.getValue( "version" ) );
+        assertEquals( "2.0", reader.getProperty( "bar.version" ) );
+        assertEquals( 1, reader.getManagedDependencies().size() );
+        assertEquals( "${bar.version}", reader.getManagedDependencies().get( 0 ).version );
+    }
+
+    @Test( expected = XMLStreamException.class )
+    public void testExternalEntitiesRejected()
+                    throws Exception
+    {
+        File secret = folder.newFile( "secret.txt" );
+        FileUtils.writeStringToFile( secret, "1.0" );
+        String pom = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<!DOCTYPE project [<!ENTITY xxe SYSTEM \"" + secret.toURI() + "\">]>\n"
+                        + "<project><groupId>org.foo</groupId><artifactId>bom</artifactId>"
+                        + "<version>&xxe;</version></project>";
+
+        new StreamingPomReader( new ByteArrayInputStream( pom.getBytes( "UTF-8" ) ) );
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GalleyInfrastructureTest
+{
+    @Test
+    public void sharedCacheNotConfigured()
+        throws Exception
+    {
+        assertNull( GalleyInfrastructure.createSharedCache( new Properties() ) );
+    }
+
+    @Test
+    public void sharedCacheConfigured()
+        throws Exception
+    {
+        final Properties props = new Properties();
+        props.setProperty( GalleyInfrastructure.SHARED_CACHE_PROPERTY, "/tmp/shared" );
+        props.setProperty( GalleyInfrastructure.SHARED_CACHE_METADATA_TTL_PROPERTY, "5" );
+
+        final SharedResolutionCache cache = GalleyInfrastructure.createSharedCache( props );
+
+        assertEquals( new File( "/tmp/shared" ), cache.getDirectory() );
+        assertEquals( 5 * 60 * 1000, cache.getTtl( "org/foo/bar/maven-metadata.xml" ) );
+        assertEquals( -1, cache.getTtl( "org/foo/bar/1.0/bar-1.0.pom" ) );
+    }
+
+    @Test
+    public void sharedCacheInvalidValue()
+        throws Exception
+    {
+        final Properties props = new Properties();
+        props.setProperty( GalleyInfrastructure.SHARED_CACHE_PROPERTY, "/tmp/shared" );
+        props.setProperty( GalleyInfrastructure.SHARED_CACHE_SIZE_PROPERTY, "1G" );
+
+        try
+        {
+            GalleyInfrastructure.createSharedCache( props );
+            fail( "Expected an invalid size to be reported" );
+        }
+        catch ( final ManipulationException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().contains( GalleyInfrastructure.SHARED_CACHE_SIZE_PROPERTY ) );
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.reflect.FieldUtils;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.repository.DefaultMirrorSelector;
+import org.apache.maven.settings.Settings;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.io.ModelIO;
+import org.commonjava.maven.ext.io.server.JettyHttpServer;
+import org.commonjava.maven.galley.model.Location;
+import org.commonjava.maven.galley.model.SimpleLocation;
+import org.commonjava.maven.galley.transport.htcli.model.SimpleHttpLocation;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class SharedCacheTransportTest
+{
+    private static final String PATH = "org/foo/bar/1.0/bar-1.0.pom";
+
+    private static final byte[] BAR = ( "<project><modelVersion>4.0.0</modelVersion><groupId>org.foo</groupId>"
+                    + "<artifactId>bar</artifactId><version>1.0</version></project>" ).getBytes();
+
+    private static final ProjectVersionRef REF = SimpleProjectVersionRef.parse( "org.foo:bar:1.0" );
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final AtomicInteger downloads = new AtomicInteger();
+
+    private JettyHttpServer server;
+
+    private Location remote;
+
+    @Before
+    public void startServer()
+        throws Exception
+    {
+        server = new JettyHttpServer( new AbstractHandler()
+        {
+            @Override
+            public void handle( final String target, final Request baseRequest, final HttpServletRequest request,
+                                final HttpServletResponse response )
+                            throws IOException
+            {
+                if ( ( '/' + PATH ).equals( target ) )
+                {
+                    if ( "GET".equals( request.getMethod() ) )
+                    {
+                        downloads.incrementAndGet();
+                    }
+                    response.setStatus( HttpServletResponse.SC_OK );
+                    response.setContentLength( BAR.length );
+                    response.getOutputStream().write( BAR );
+                }
+                else
+                {
+                    response.setStatus( HttpServletResponse.SC_NOT_FOUND );
+                }
+                baseRequest.setHandled( true );
+            }
+        } );
+        remote = new SimpleHttpLocation( "test", "http://127.0.0.1:" + server.getPort(), false, true, true, false,
+                                         null );
+    }
+
+    @After
+    public void stopServer()
+    {
+        server.shutdown();
+    }
+
+    @Test
+    public void sharedCacheServesOtherBuilds()
+        throws Exception
+    {
+        final SharedResolutionCache sharedCache =
+            new SharedResolutionCache( temp.newFolder( "shared" ), 1024 * 1024, 0, -1 );
+
+        assertEquals( "bar", newBuild( remote, sharedCache ).resolveRawModel( REF ).getArtifactId() );
+        assertEquals( 1, downloads.get() );
+        assertEquals( "bar", newBuild( remote, sharedCache ).resolveRawModel( REF ).getArtifactId() );
+
+        assertEquals( 1, downloads.get() );
+    }
+
+    @Test
+    public void sharedCacheDownloadsCorruptContent()
+        throws Exception
+    {
+        final File shared = temp.newFolder( "shared" );
+        final SharedResolutionCache sharedCache = new SharedResolutionCache( shared, 1024 * 1024, 0, -1 );
+
+        assertEquals( "bar", newBuild( remote, sharedCache ).resolveRawModel( REF ).getArtifactId() );
+        final File content = new File( shared, "content/" + DigestUtils.sha256Hex( BAR ) );
+        FileUtils.writeStringToFile( content, "<project>" );
+
+        assertEquals( "bar", newBuild( remote, sharedCache ).resolveRawModel( REF ).getArtifactId() );
+
+        assertEquals( 2, downloads.get() );
+        assertArrayEquals( BAR, FileUtils.readFileToByteArray( content ) );
+    }
+
+    @Test
+    public void sharedCacheSkipsLocalFiles()
+        throws Exception
+    {
+        final File repository = temp.newFolder( "repository" );
+        FileUtils.writeByteArrayToFile( new File( repository, PATH ), BAR );
+        final Location local = new SimpleLocation( "local", repository.toURI().toString() );
+        final File shared = temp.newFolder( "shared" );
+
+        assertEquals( "bar", newBuild( local, new SharedResolutionCache( shared, 1024 * 1024, 0, -1 ) )
+                        .resolveRawModel( REF ).getArtifactId() );
+
+        assertFalse( new File( shared, "content" ).exists() );
+    }
+
+    private ModelIO newBuild( final Location location, final SharedResolutionCache sharedCache )
+        throws Exception
+    {
+        final GalleyInfrastructure galleyInfra =
+            new GalleyInfrastructure( temp.newFolder(), Collections.<ArtifactRepository>emptyList(), null,
+                                      new Settings(), Collections.<String>emptyList(), new DefaultMirrorSelector(),
+                                      location, null, temp.newFolder(), sharedCache );
+        final ModelIO model = new ModelIO();
+        FieldUtils.writeField( model, "galleyWrapper", new GalleyAPIWrapper( galleyInfra ), true );
+        return model;
+    }
+}